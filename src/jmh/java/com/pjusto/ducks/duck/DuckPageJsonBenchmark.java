@@ -0,0 +1,56 @@
+package com.pjusto.ducks.duck;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the {@code GET /ducks} page, with an ObjectMapper configured like Boot's.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DuckPageJsonBenchmark {
+
+    @Param({"20", "100", "1000"})
+    int pageSize;
+
+    private ObjectWriter writer;
+    private Page<DuckController.DuckWithPriceResponse> page;
+
+    @Setup
+    public void setUp() {
+        writer = Jackson2ObjectMapperBuilder.json().build().writer();
+        Instant now = Instant.parse("2026-01-01T12:00:00Z");
+        List<DuckController.DuckWithPriceResponse> content = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            content.add(new DuckController.DuckWithPriceResponse(
+                    (long) i + 1,
+                    "Pato " + i,
+                    new BigDecimal("50.00"),
+                    i == 0 ? null : (long) i,
+                    now,
+                    now
+            ));
+        }
+        page = new PageImpl<>(content, PageRequest.of(3, pageSize), 1_000_000);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return writer.writeValueAsBytes(page);
+    }
+}
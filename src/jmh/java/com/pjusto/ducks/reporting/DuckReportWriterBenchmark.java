@@ -0,0 +1,72 @@
+package com.pjusto.ducks.reporting;
+
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Row emission of the duck report into the in-memory workbook the report cache uses and into the
+ * windowed one of the streaming endpoint, with and without serializing the file.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DuckReportWriterBenchmark {
+
+    private static final int STREAMING_ROW_WINDOW = 100;
+
+    @Param({"1000", "10000"})
+    int flockSize;
+
+    @Param({"WIDE", "DEEP", "RANDOM"})
+    Flocks.Shape shape;
+
+    @Param({"XSSF", "SXSSF"})
+    String workbook;
+
+    private DuckTree tree;
+    private Map<Long, SoldDuckView> sold;
+
+    @Setup
+    public void setUp() {
+        var ducks = Flocks.of(shape, flockSize);
+        tree = DuckTree.of(ducks);
+        sold = Flocks.sold(ducks);
+    }
+
+    @Benchmark
+    public int writeRows() throws IOException {
+        try (Workbook wb = newWorkbook()) {
+            DuckReportWriter.write(wb, tree, sold);
+            int rows = wb.getSheetAt(0).getLastRowNum();
+            dispose(wb);
+            return rows;
+        }
+    }
+
+    @Benchmark
+    public void writeFile() throws IOException {
+        try (Workbook wb = newWorkbook()) {
+            DuckReportWriter.write(wb, tree, sold);
+            wb.write(OutputStream.nullOutputStream());
+            dispose(wb);
+        }
+    }
+
+    private Workbook newWorkbook() {
+        return workbook.equals("SXSSF") ? new SXSSFWorkbook(STREAMING_ROW_WINDOW) : new XSSFWorkbook();
+    }
+
+    private static void dispose(Workbook wb) {
+        if (wb instanceof SXSSFWorkbook s) s.dispose();
+    }
+}
@@ -0,0 +1,45 @@
+package com.pjusto.ducks.reporting;
+
+import com.pjusto.ducks.duck.Duck;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Roots/children grouping, sibling sorting and the max-depth walk behind the duck report.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DuckTreeBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    int flockSize;
+
+    @Param({"WIDE", "DEEP", "RANDOM"})
+    Flocks.Shape shape;
+
+    private List<Duck> ducks;
+    private DuckTree tree;
+
+    @Setup
+    public void setUp() {
+        ducks = Flocks.of(shape, flockSize);
+        tree = DuckTree.of(ducks);
+    }
+
+    @Benchmark
+    public DuckTree build() {
+        return DuckTree.of(ducks);
+    }
+
+    @Benchmark
+    public void walk(Blackhole bh) {
+        tree.walk((duck, depth) -> bh.consume(depth));
+    }
+}
@@ -0,0 +1,76 @@
+package com.pjusto.ducks.reporting;
+
+import com.pjusto.ducks.duck.Duck;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Synthetic flocks for the report benchmarks. Fixed seeds, so every run builds the same ducks.
+ */
+public final class Flocks {
+
+    /** Generations per lineage of a {@link Shape#DEEP} flock; keeps name indents within Excel's limit of 250. */
+    static final int DEEP_GENERATIONS = 200;
+
+    private static final int WIDE_ROOTS = 10;
+    private static final BigDecimal[] PRICES = {
+            new BigDecimal("70.00"), new BigDecimal("50.00"), new BigDecimal("25.00")
+    };
+
+    public enum Shape {
+        /** A few roots, every other duck a daughter of one of them. */
+        WIDE,
+        /** Lineages of {@link #DEEP_GENERATIONS} ducks, each the daughter of the previous one. */
+        DEEP,
+        /** Each duck is a root or the daughter of a random earlier duck. */
+        RANDOM
+    }
+
+    private Flocks() {
+    }
+
+    static List<Duck> of(Shape shape, int size) {
+        Random random = new Random(42);
+        List<Duck> ducks = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Duck mother = switch (shape) {
+                case WIDE -> i < WIDE_ROOTS ? null : ducks.get(random.nextInt(WIDE_ROOTS));
+                case DEEP -> i % DEEP_GENERATIONS == 0 ? null : ducks.get(i - 1);
+                case RANDOM -> i == 0 || random.nextInt(10) == 0 ? null : ducks.get(random.nextInt(i));
+            };
+            Duck d = new Duck();
+            d.setId((long) i + 1);
+            d.setName("Pato " + Long.toString(random.nextLong() & Long.MAX_VALUE, 36));
+            d.setPrice(PRICES[random.nextInt(PRICES.length)]);
+            d.setMother(mother);
+            ducks.add(d);
+        }
+        // ducks come back from the database in no particular order
+        Collections.shuffle(ducks, random);
+        return ducks;
+    }
+
+    /** Marks about half of the flock as sold, a quarter of those with a discount. */
+    static Map<Long, SoldDuckView> sold(List<Duck> ducks) {
+        Random random = new Random(7);
+        Instant saleDate = Instant.parse("2026-01-01T00:00:00Z");
+        Map<Long, SoldDuckView> sold = new HashMap<>();
+        for (Duck d : ducks) {
+            if (!random.nextBoolean()) continue;
+            SoldDuckView v = new SoldDuckView();
+            v.setDuckId(d.getId());
+            v.setDuckName(d.getName());
+            v.setPriceAtSale(random.nextInt(4) == 0 ? d.getPrice().multiply(new BigDecimal("0.80")) : d.getPrice());
+            v.setSaleId(d.getId());
+            v.setSaleDate(saleDate);
+            v.setCustomerId(1L);
+            v.setCustomerName("Cliente " + random.nextInt(1000));
+            v.setEmployeeId(1L);
+            v.setEmployeeName("Vendedor");
+            sold.put(d.getId(), v);
+        }
+        return sold;
+    }
+}
@@ -0,0 +1,47 @@
+package com.pjusto.ducks.sale;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Discount math of {@code POST /sales}: per-item multiply and rounding plus the two totals.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SalePricingBenchmark {
+
+    private static final BigDecimal[] DUCK_PRICES = {
+            new BigDecimal("70.00"), new BigDecimal("50.00"), new BigDecimal("25.00")
+    };
+
+    @Param({"1", "5", "20", "50", "500"})
+    int ducksPerSale;
+
+    @Param({"true", "false"})
+    boolean hasDiscount;
+
+    private List<BigDecimal> prices;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        prices = new ArrayList<>(ducksPerSale);
+        for (int i = 0; i < ducksPerSale; i++) {
+            prices.add(DUCK_PRICES[random.nextInt(DUCK_PRICES.length)]);
+        }
+    }
+
+    @Benchmark
+    public SalePricing.Priced priceOf() {
+        return SalePricing.priceOf(prices, hasDiscount);
+    }
+}
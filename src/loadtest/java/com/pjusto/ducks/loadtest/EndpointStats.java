@@ -0,0 +1,105 @@
+package com.pjusto.ducks.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and outcomes of one endpoint during the measured phase. Latency runs from the intended
+ * start of a request, not from when it was actually sent, so a stalled server shows up as queueing
+ * delay instead of being hidden by coordinated omission.
+ */
+final class EndpointStats {
+
+    private static final long HIGHEST_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    private final String name;
+    private final Histogram latencyMicros = new ConcurrentHistogram(HIGHEST_MICROS, 3);
+    private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    EndpointStats(String name) {
+        this.name = name;
+    }
+
+    String name() {
+        return name;
+    }
+
+    /**
+     * @param outcome HTTP status code, or an exception name when no response arrived
+     * @param ok      whether the outcome is one the workload expects, such as 409 for a duck sold meanwhile
+     */
+    void record(long latencyNanos, String outcome, boolean ok) {
+        latencyMicros.recordValue(Math.min(HIGHEST_MICROS, Math.max(0, latencyNanos / 1_000)));
+        outcomes.computeIfAbsent(outcome, k -> new LongAdder()).increment();
+        if (!ok) failures.increment();
+    }
+
+    /** An arrival for this endpoint that was never sent because too many requests were in flight. */
+    void drop() {
+        dropped.increment();
+    }
+
+    long count() {
+        return latencyMicros.getTotalCount();
+    }
+
+    Result result(double seconds) {
+        Histogram h = latencyMicros.copy();
+        Map<String, Long> byOutcome = new TreeMap<>();
+        outcomes.forEach((k, v) -> byOutcome.put(k, v.sum()));
+        return new Result(
+                name,
+                h.getTotalCount(),
+                failures.sum(),
+                dropped.sum(),
+                seconds > 0 ? h.getTotalCount() / seconds : 0,
+                millis(h.getValueAtPercentile(50)),
+                millis(h.getValueAtPercentile(90)),
+                millis(h.getValueAtPercentile(99)),
+                millis(h.getValueAtPercentile(99.9)),
+                millis(h.getMaxValue()),
+                h.getMean() / 1_000,
+                byOutcome,
+                encode(h)
+        );
+    }
+
+    private static double millis(long micros) {
+        return micros / 1_000.0;
+    }
+
+    /** Compressed HdrHistogram in base64, so runs can be merged or re-read with other percentiles later. */
+    private static String encode(Histogram h) {
+        ByteBuffer buffer = ByteBuffer.allocate(h.getNeededByteBufferCapacity());
+        int length = h.encodeIntoCompressedByteBuffer(buffer);
+        return Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length));
+    }
+
+    record Result(
+            String endpoint,
+            long requests,
+            long failures,
+            long dropped,
+            double throughputPerSecond,
+            double p50Millis,
+            double p90Millis,
+            double p99Millis,
+            double p999Millis,
+            double maxMillis,
+            double meanMillis,
+            Map<String, Long> outcomes,
+            String histogram
+    ) {
+    }
+}
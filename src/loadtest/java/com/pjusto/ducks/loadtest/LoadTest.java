@@ -0,0 +1,225 @@
+package com.pjusto.ducks.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load generator for a running instance:
+ * <pre>
+ * ./mvnw -Ploadtest test-compile exec:exec@loadtest \
+ *     -Dloadtest.args="--base-url=http://localhost:8080 --rate=200 --duration=PT2M --label=my-branch"
+ * </pre>
+ * Requests arrive as a Poisson process at {@code --rate} per second no matter how fast the server answers,
+ * each one on its own virtual thread, and the endpoint is drawn from the {@code --mix} weights. Nothing is
+ * recorded during {@code --warmup}. Per-endpoint throughput and p50/p90/p99/p999 latency are printed and
+ * written as JSON to {@code --out}, together with the run settings and the encoded histograms.
+ * <p>
+ * Arrivals beyond {@code --max-in-flight} outstanding requests are dropped, so an overloaded server cannot
+ * make the generator itself run out of memory. Dropped arrivals never get a latency, which would flatter the
+ * percentiles, so they are reported per endpoint and any drop while measuring makes the run exit with status 1.
+ */
+public final class LoadTest {
+
+    private static final Map<String, String> DEFAULTS = Map.of(
+            "base-url", "http://localhost:8080",
+            "rate", "100",
+            "warmup", "PT30S",
+            "duration", "PT2M",
+            "max-in-flight", "5000",
+            "fresh-ducks", "20000",
+            "hot-ducks", "20",
+            "hot-share", "0.2",
+            "label", "",
+            "out", "target/loadtest/results-" + Instant.now().toString().replace(':', '-') + ".json"
+    );
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        URI base = URI.create(options.get("base-url"));
+        double rate = Double.parseDouble(options.get("rate"));
+        Duration warmup = Duration.parse(options.get("warmup"));
+        Duration duration = Duration.parse(options.get("duration"));
+        int maxInFlight = Integer.parseInt(options.get("max-in-flight"));
+        Map<String, Integer> weights = options.containsKey("mix") ? parseMix(options.get("mix")) : Workload.defaultWeights();
+
+        long droppedWhileMeasuring;
+        try (ExecutorService virtualThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient client = HttpClient.newBuilder()
+                    .executor(virtualThreads)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .build();
+
+            Workload workload = new Workload(base, client, weights, Double.parseDouble(options.get("hot-share")));
+            workload.setUp(Integer.parseInt(options.get("fresh-ducks")), Integer.parseInt(options.get("hot-ducks")));
+
+            Map<String, EndpointStats> stats = new LinkedHashMap<>();
+            workload.operations().forEach(op -> stats.put(op.name(), new EndpointStats(op.name())));
+
+            System.out.printf("Warming up for %s at %.0f req/s%n", warmup, rate);
+            Run warm = drive(client, virtualThreads, workload, null, rate, warmup, maxInFlight);
+            System.out.printf("Measuring for %s at %.0f req/s%n", duration, rate);
+            Run measured = drive(client, virtualThreads, workload, stats, rate, duration, maxInFlight);
+
+            double seconds = measured.elapsedNanos / 1e9;
+            List<EndpointStats.Result> results = stats.values().stream().map(s -> s.result(seconds)).toList();
+            print(results, measured, seconds);
+            write(Path.of(options.get("out")), options, results, warm, measured, seconds);
+            droppedWhileMeasuring = measured.dropped();
+        }
+        if (droppedWhileMeasuring > 0) {
+            System.err.printf("%d arrivals were dropped while measuring; latencies are understated. "
+                    + "Raise --max-in-flight or lower --rate.%n", droppedWhileMeasuring);
+            System.exit(1);
+        }
+    }
+
+    private record Run(long elapsedNanos, long sent, long dropped) {
+    }
+
+    /**
+     * Issues arrivals for {@code length}, then waits for the requests still in flight; {@code stats} is null
+     * while warming up. The elapsed time covers the arrival period only, so throughput is not diluted by the
+     * drain.
+     */
+    private static Run drive(
+            HttpClient client,
+            ExecutorService executor,
+            Workload workload,
+            Map<String, EndpointStats> stats,
+            double rate,
+            Duration length,
+            int maxInFlight
+    ) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        LongAdder dropped = new LongAdder();
+        long sent = 0;
+
+        long start = System.nanoTime();
+        long end = start + length.toNanos();
+        double meanGapNanos = 1e9 / rate;
+        long intended = start;
+        while (true) {
+            intended += (long) (-Math.log(1 - ThreadLocalRandom.current().nextDouble()) * meanGapNanos);
+            if (intended >= end) break;
+            long wait = intended - System.nanoTime();
+            if (wait > 0) LockSupport.parkNanos(wait);
+
+            Workload.Operation op = workload.next();
+            EndpointStats endpoint = (stats != null) ? stats.get(op.name()) : null;
+            if (!inFlight.tryAcquire()) {
+                dropped.increment();
+                if (endpoint != null) endpoint.drop();
+                continue;
+            }
+            sent++;
+            long startedAt = intended;
+            executor.execute(() -> {
+                try {
+                    call(client, op, endpoint, startedAt);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+        long elapsed = System.nanoTime() - start;
+        // let the last requests finish so their latencies are counted
+        inFlight.tryAcquire(maxInFlight, 2, TimeUnit.MINUTES);
+        return new Run(elapsed, sent, dropped.sum());
+    }
+
+    private static void call(HttpClient client, Workload.Operation op, EndpointStats stats, long intendedStart) {
+        String outcome;
+        boolean ok;
+        try {
+            HttpResponse<Void> response = client.send(op.request().get(), HttpResponse.BodyHandlers.discarding());
+            outcome = Integer.toString(response.statusCode());
+            ok = op.expected().test(response.statusCode());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Exception ex) {
+            outcome = ex.getClass().getSimpleName();
+            ok = false;
+        }
+        if (stats != null) {
+            stats.record(System.nanoTime() - intendedStart, outcome, ok);
+        }
+    }
+
+    private static void print(List<EndpointStats.Result> results, Run run, double seconds) {
+        System.out.printf("%n%-26s %9s %8s %8s %9s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "failed", "dropped", "req/s", "p50 ms", "p90 ms", "p99 ms", "p999 ms", "max ms");
+        for (EndpointStats.Result r : results) {
+            System.out.printf("%-26s %9d %8d %8d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    r.endpoint(), r.requests(), r.failures(), r.dropped(), r.throughputPerSecond(),
+                    r.p50Millis(), r.p90Millis(), r.p99Millis(), r.p999Millis(), r.maxMillis());
+        }
+        System.out.printf("%nSent %d requests in %.1f s (%.1f req/s), dropped %d arrivals over the in-flight limit%n",
+                run.sent(), seconds, run.sent() / seconds, run.dropped());
+    }
+
+    private static void write(
+            Path out,
+            Map<String, String> options,
+            List<EndpointStats.Result> results,
+            Run warm,
+            Run measured,
+            double seconds
+    ) throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("label", options.get("label"));
+        report.put("finishedAt", Instant.now().toString());
+        report.put("options", new TreeMap<>(options));
+        report.put("warmup", Map.of("sent", warm.sent(), "dropped", warm.dropped()));
+        report.put("measured", Map.of("sent", measured.sent(), "dropped", measured.dropped(), "seconds", seconds));
+        report.put("endpoints", results);
+
+        if (out.getParent() != null) Files.createDirectories(out.getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(out.toFile(), report);
+        System.out.println("Results written to " + out.toAbsolutePath());
+    }
+
+    /** {@code --name=value} arguments over {@link #DEFAULTS}. */
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>(DEFAULTS);
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            int eq = arg.indexOf('=');
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        return options;
+    }
+
+    /** {@code "GET /ducks:30,POST /sales:10"}: only the listed operations run. */
+    private static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new HashMap<>();
+        for (String entry : mix.split(",")) {
+            int colon = entry.lastIndexOf(':');
+            weights.put(entry.substring(0, colon).trim(), Integer.parseInt(entry.substring(colon + 1).trim()));
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,208 @@
+package com.pjusto.ducks.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+
+/**
+ * The traffic mix. Each arrival picks one {@link Operation} by weight.
+ * <p>
+ * Sales are made of ducks the harness imports during setup, so they start out unsold. Most sales take
+ * the next unused ducks. The rest pick from a small hot set shared by every concurrent sale, so
+ * requests race for the same ducks: one wins and the others get 409, which counts as an expected
+ * outcome.
+ */
+final class Workload {
+
+    private static final String[] SEARCH_TERMS = {
+            "pato", "quack", "pena", "lagoa", "dourado", "manchado", "ana", "silva", "lima", "bico", "sol", "pipoca"
+    };
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    record Operation(String name, int weight, Supplier<HttpRequest> request, IntPredicate expected) {
+    }
+
+    private final URI base;
+    private final HttpClient client;
+    private final ObjectMapper json = new ObjectMapper();
+    private final List<Operation> operations = new ArrayList<>();
+    private int totalWeight;
+
+    private long[] customerIds;
+    private long[] employeeIds;
+    private long[] freshDucks;
+    private long[] hotDucks;
+    private final AtomicInteger nextFresh = new AtomicInteger();
+    private final double hotShare;
+
+    Workload(URI base, HttpClient client, Map<String, Integer> weights, double hotShare) {
+        this.base = base;
+        this.client = client;
+        this.hotShare = hotShare;
+
+        add(weights, "GET /ducks", () -> get("/ducks?page=" + random().nextInt(50) + "&size=20"), ok());
+        add(weights, "GET /ducks?name", () -> get("/ducks?size=20&name=" + term()), ok());
+        add(weights, "GET /search", () -> get("/search?limit=20&q=" + term()), ok());
+        add(weights, "GET /ducks/sold", () -> get("/ducks/sold?page=" + random().nextInt(10) + "&size=20"), ok());
+        add(weights, "POST /sales", this::sale, status -> status == 201 || status == 409);
+        add(weights, "GET /employees/rankings", () -> get("/employees/rankings/"
+                + (random().nextBoolean() ? "count" : "revenue") + "?limit=10"), ok());
+        add(weights, "GET /reports/ducks.xlsx", () -> get("/reports/ducks.xlsx"), status -> status == 200 || status == 304);
+        if (operations.isEmpty()) {
+            throw new IllegalArgumentException("The mix selects no operation; known: " + defaultWeights().keySet());
+        }
+    }
+
+    /** Defaults for {@code --mix}: reads dominate, sales are a steady trickle and downloads are rare. */
+    static Map<String, Integer> defaultWeights() {
+        return Map.of(
+                "GET /ducks", 30,
+                "GET /ducks?name", 15,
+                "GET /search", 15,
+                "GET /ducks/sold", 10,
+                "POST /sales", 15,
+                "GET /employees/rankings", 13,
+                "GET /reports/ducks.xlsx", 2
+        );
+    }
+
+    List<Operation> operations() {
+        return operations;
+    }
+
+    Operation next() {
+        int pick = random().nextInt(totalWeight);
+        for (Operation op : operations) {
+            pick -= op.weight();
+            if (pick < 0) return op;
+        }
+        throw new IllegalStateException("No operations");
+    }
+
+    /**
+     * Finds customers and employees to sell with, creating one of each if there are none, and imports
+     * {@code freshDucks} new ducks for sales.
+     */
+    void setUp(int freshDuckCount, int hotDuckCount) throws IOException, InterruptedException {
+        customerIds = ids(getJson("/customers?size=200"));
+        if (customerIds.length == 0) {
+            customerIds = new long[]{postJson("/customers", Map.of("name", "Cliente carga", "hasSalesDiscount", true)).get("id").asLong()};
+        }
+        employeeIds = ids(getJson("/employees?size=200"));
+        if (employeeIds.length == 0) {
+            employeeIds = new long[]{postJson("/employees", Map.of(
+                    "name", "Vendedor carga", "cpf", "00000000191", "employeeCode", "LOAD01")).get("id").asLong()};
+        }
+
+        String run = Long.toString(System.currentTimeMillis(), 36);
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < freshDuckCount + hotDuckCount; i++) {
+            ndjson.append(json.writeValueAsString(Map.of("name", "Pato carga " + run + " " + i))).append('\n');
+        }
+        HttpResponse<String> imported = send(HttpRequest.newBuilder(base.resolve("/ducks/bulk"))
+                .timeout(Duration.ofMinutes(5))
+                .header("Content-Type", "application/x-ndjson")
+                .POST(HttpRequest.BodyPublishers.ofString(ndjson.toString()))
+                .build());
+        JsonNode ducks = json.readTree(imported.body()).get("ducks");
+        long[] all = new long[ducks.size()];
+        for (int i = 0; i < all.length; i++) all[i] = ducks.get(i).get("id").asLong();
+        hotDucks = Arrays.copyOfRange(all, 0, hotDuckCount);
+        freshDucks = Arrays.copyOfRange(all, hotDuckCount, all.length);
+    }
+
+    private HttpRequest sale() {
+        ThreadLocalRandom random = random();
+        int size = 1 + random.nextInt(3);
+        List<Long> duckIds = new ArrayList<>(size);
+        boolean hot = hotDucks.length > 0 && (random.nextDouble() < hotShare || nextFresh.get() >= freshDucks.length);
+        if (!hot && freshDucks.length == 0) throw new IllegalStateException("No ducks to sell");
+        for (int i = 0; i < size; i++) {
+            if (hot) {
+                duckIds.add(hotDucks[random.nextInt(hotDucks.length)]);
+            } else {
+                int n = nextFresh.getAndIncrement();
+                // once fresh ducks run out, sales keep cycling through them and get 409s
+                duckIds.add(freshDucks[n % freshDucks.length]);
+            }
+        }
+        Map<String, Object> body = Map.of(
+                "customerId", customerIds[random.nextInt(customerIds.length)],
+                "employeeId", employeeIds[random.nextInt(employeeIds.length)],
+                "duckIds", duckIds.stream().distinct().toList()
+        );
+        try {
+            return HttpRequest.newBuilder(base.resolve("/sales"))
+                    .timeout(REQUEST_TIMEOUT)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(json.writeValueAsString(body)))
+                    .build();
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private void add(Map<String, Integer> weights, String name, Supplier<HttpRequest> request, IntPredicate expected) {
+        int weight = weights.getOrDefault(name, 0);
+        if (weight <= 0) return;
+        operations.add(new Operation(name, weight, request, expected));
+        totalWeight += weight;
+    }
+
+    private HttpRequest get(String pathAndQuery) {
+        return HttpRequest.newBuilder(base.resolve(pathAndQuery)).timeout(REQUEST_TIMEOUT).GET().build();
+    }
+
+    private JsonNode getJson(String path) throws IOException, InterruptedException {
+        return json.readTree(send(get(path)).body());
+    }
+
+    private JsonNode postJson(String path, Object body) throws IOException, InterruptedException {
+        return json.readTree(send(HttpRequest.newBuilder(base.resolve(path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json.writeValueAsString(body)))
+                .build()).body());
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 300) {
+            throw new IOException(request.method() + " " + request.uri() + " returned " + response.statusCode() + ": " + response.body());
+        }
+        return response;
+    }
+
+    private static long[] ids(JsonNode page) {
+        JsonNode content = page.get("content");
+        long[] ids = new long[content.size()];
+        for (int i = 0; i < ids.length; i++) ids[i] = content.get(i).get("id").asLong();
+        return ids;
+    }
+
+    private static String term() {
+        return SEARCH_TERMS[random().nextInt(SEARCH_TERMS.length)];
+    }
+
+    private static IntPredicate ok() {
+        return status -> status >= 200 && status < 300;
+    }
+
+    private static ThreadLocalRandom random() {
+        return ThreadLocalRandom.current();
+    }
+}
@@ -0,0 +1,84 @@
+package com.pjusto.ducks.cache;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Hit/miss counters of the second-level cache regions, from Hibernate statistics since startup,
+ * plus load/coalesced/hit counters of each {@link SingleFlight}.
+ */
+@RestController
+@RequestMapping("/cache")
+public class CacheStatsController {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final SingleFlights singleFlights;
+
+    public CacheStatsController(EntityManagerFactory entityManagerFactory, SingleFlights singleFlights) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.singleFlights = singleFlights;
+    }
+
+    @GetMapping("/stats")
+    public CacheStatsResponse stats() {
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        List<RegionStats> regions = Arrays.stream(stats.getSecondLevelCacheRegionNames())
+                .sorted()
+                .map(name -> toRegionStats(name, stats.getDomainDataRegionStatistics(name)))
+                .toList();
+
+        return new CacheStatsResponse(
+                stats.isStatisticsEnabled(),
+                stats.getSecondLevelCacheHitCount(),
+                stats.getSecondLevelCacheMissCount(),
+                stats.getSecondLevelCachePutCount(),
+                regions,
+                singleFlights.stats()
+        );
+    }
+
+    private static RegionStats toRegionStats(String name, CacheRegionStatistics region) {
+        long hits = region.getHitCount();
+        long misses = region.getMissCount();
+        return new RegionStats(
+                name,
+                hits,
+                misses,
+                region.getPutCount(),
+                (hits + misses == 0) ? 0.0 : (double) hits / (hits + misses),
+                region.getElementCountInMemory()
+        );
+    }
+
+    public record CacheStatsResponse(
+            boolean statisticsEnabled,
+            long hits,
+            long misses,
+            long puts,
+            List<RegionStats> regions,
+            List<SingleFlight.Stats> coalescing
+    ) {
+    }
+
+    /**
+     * @param elementsInMemory entries currently held, or -1 if the cache provider does not report it
+     */
+    public record RegionStats(
+            String region,
+            long hits,
+            long misses,
+            long puts,
+            double hitRatio,
+            long elementsInMemory
+    ) {
+    }
+}
@@ -0,0 +1,55 @@
+package com.pjusto.ducks.cache;
+
+import com.pjusto.ducks.customer.Customer;
+import com.pjusto.ducks.employee.Employee;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops entries from the Hibernate second-level cache.
+ * <p>
+ * Writes through JPA already keep {@code READ_WRITE} regions consistent on this node; explicit eviction
+ * covers rows changed behind Hibernate's back (native SQL, triggers, other nodes) and is cheap enough to
+ * run after every successful write handler.
+ */
+@Component
+public class EntityCacheEvictor {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public EntityCacheEvictor(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    public void evict(Class<?> entityType, Object id) {
+        entityManagerFactory.getCache().evict(entityType, id);
+    }
+
+    public void evictAll(Class<?> entityType) {
+        entityManagerFactory.getCache().evict(entityType);
+    }
+
+    /**
+     * Applies invalidations from any node to the cached entity regions; the local ones were already
+     * evicted by the write handler, but evicting twice is harmless.
+     */
+    @EventListener
+    public void onInvalidated(EntityInvalidatedEvent event) {
+        Class<?> entityType = switch (event.type()) {
+            case CUSTOMER -> Customer.class;
+            case EMPLOYEE -> Employee.class;
+            case DUCK, SALE -> null;
+        };
+        if (entityType == null) {
+            return;
+        }
+        if (event.all()) {
+            evictAll(entityType);
+            return;
+        }
+        for (long id : event.ids()) {
+            evict(entityType, id);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.pjusto.ducks.cache;
+
+/**
+ * Local application event for rows of {@code type} that changed on some node.
+ *
+ * @param ids    changed ids; empty when everything of that type must be considered stale
+ *               (e.g. after the listener reconnected and may have missed notifications)
+ * @param remote false when the change was made by this node, whose write path already updated
+ *               its own derived state
+ */
+public record EntityInvalidatedEvent(EntityType type, long[] ids, boolean remote) {
+
+    public boolean all() {
+        return ids.length == 0;
+    }
+}
@@ -0,0 +1,27 @@
+package com.pjusto.ducks.cache;
+
+/**
+ * Kinds of rows whose changes are broadcast by {@link InvalidationBus}; {@code code} is the
+ * one-letter tag used in {@code NOTIFY} payloads.
+ */
+public enum EntityType {
+    DUCK('D'),
+    CUSTOMER('C'),
+    EMPLOYEE('E'),
+    SALE('S');
+
+    final char code;
+
+    EntityType(char code) {
+        this.code = code;
+    }
+
+    static EntityType ofCode(char code) {
+        for (EntityType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown entity type code: " + code);
+    }
+}
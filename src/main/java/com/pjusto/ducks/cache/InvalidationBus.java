@@ -0,0 +1,183 @@
+package com.pjusto.ducks.cache;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Cluster-wide cache invalidation over Postgres {@code LISTEN/NOTIFY}.
+ * <p>
+ * Writers call {@link #publish} after (or inside the transaction of) a write; the notification is sent
+ * with {@code pg_notify}, so inside a transaction it is only delivered on commit and dropped on rollback.
+ * Payloads are {@code "<node> <type> <id>,<id>,..."}, split to stay under the 8000-byte NOTIFY limit.
+ * <p>
+ * Each node keeps one dedicated connection outside the pool that {@code LISTEN}s on the channel and
+ * turns every notification, including the node's own, into an {@link EntityInvalidatedEvent}. After a
+ * reconnect, notifications sent in between are lost, so every type is reported as entirely stale.
+ */
+@Component
+public class InvalidationBus implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(InvalidationBus.class);
+
+    static final String CHANNEL = "ducks_invalidation";
+    private static final int MAX_PAYLOAD_CHARS = 7900;
+    private static final int POLL_MILLIS = 1000;
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcConnectionDetails connectionDetails;
+    private final ApplicationEventPublisher eventPublisher;
+    private final String nodeId = UUID.randomUUID().toString().substring(0, 8);
+
+    private volatile boolean running;
+    private Thread listener;
+
+    public InvalidationBus(
+            JdbcTemplate jdbcTemplate,
+            JdbcConnectionDetails connectionDetails,
+            ApplicationEventPublisher eventPublisher
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.connectionDetails = connectionDetails;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public void publish(EntityType type, long... ids) {
+        String prefix = nodeId + " " + type.code + " ";
+        StringBuilder payload = new StringBuilder(prefix);
+        for (long id : ids) {
+            String s = Long.toString(id);
+            if (payload.length() + s.length() + 1 > MAX_PAYLOAD_CHARS) {
+                notify(payload);
+                payload.setLength(0);
+                payload.append(prefix);
+            }
+            if (payload.length() > prefix.length()) payload.append(',');
+            payload.append(s);
+        }
+        if (payload.length() > prefix.length()) {
+            notify(payload);
+        }
+    }
+
+    public void publish(EntityType type, Collection<Long> ids) {
+        publish(type, ids.stream().mapToLong(Long::longValue).toArray());
+    }
+
+    private void notify(CharSequence payload) {
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> { }, CHANNEL, payload.toString());
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        listener = new Thread(this::listen, "invalidation-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+            try {
+                listener.join(POLL_MILLIS * 2L);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen() {
+        boolean reconnect = false;
+        long backoff = 500;
+        while (running) {
+            try (Connection con = DriverManager.getConnection(
+                    connectionDetails.getJdbcUrl(), connectionDetails.getUsername(), connectionDetails.getPassword())) {
+                try (Statement st = con.createStatement()) {
+                    st.execute("LISTEN " + CHANNEL);
+                }
+                if (reconnect) {
+                    log.info("Invalidation listener reconnected; treating all cached entities as stale");
+                    for (EntityType type : EntityType.values()) {
+                        dispatch(new EntityInvalidatedEvent(type, new long[0], true));
+                    }
+                }
+                reconnect = true;
+                backoff = 500;
+
+                PGConnection pg = con.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pg.getNotifications(POLL_MILLIS);
+                    if (notifications == null) continue;
+                    for (PGNotification n : notifications) {
+                        if (CHANNEL.equals(n.getName())) {
+                            handle(n.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException ex) {
+                if (!running) return;
+                log.warn("Invalidation listener connection failed, retrying in {} ms", backoff, ex);
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+            }
+        }
+    }
+
+    private void handle(String payload) {
+        EntityInvalidatedEvent event;
+        try {
+            event = parse(payload);
+        } catch (RuntimeException ex) {
+            log.warn("Ignoring malformed invalidation payload: {}", payload);
+            return;
+        }
+        dispatch(event);
+    }
+
+    private EntityInvalidatedEvent parse(String payload) {
+        int typeAt = payload.indexOf(' ');
+        String origin = payload.substring(0, typeAt);
+        EntityType type = EntityType.ofCode(payload.charAt(typeAt + 1));
+        String list = payload.substring(typeAt + 3);
+        String[] parts = list.isEmpty() ? new String[0] : list.split(",");
+        long[] ids = new long[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            ids[i] = Long.parseLong(parts[i]);
+        }
+        return new EntityInvalidatedEvent(type, ids, !nodeId.equals(origin));
+    }
+
+    private void dispatch(EntityInvalidatedEvent event) {
+        try {
+            eventPublisher.publishEvent(event);
+        } catch (RuntimeException ex) {
+            log.warn("Invalidation handler failed for {}", event.type(), ex);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.pjusto.ducks.cache;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent calls for the same key into one computation: the first caller runs the loader,
+ * callers arriving while it runs wait for and share its result (or its exception).
+ * <p>
+ * With a positive {@code ttl} the result is also kept for that long, so a burst of identical requests
+ * that do not overlap exactly still runs the loader once. The result cache holds at most
+ * {@code maxEntries} keys; when full, new results are simply not cached. {@link #invalidateAll()} drops
+ * cached results, and results of loads that started before it are not cached.
+ * <p>
+ * Keys must implement {@code equals}/{@code hashCode} over the normalized request parameters.
+ */
+public final class SingleFlight<K, V> {
+
+    private final String name;
+    private final long ttlNanos;
+    private final int maxEntries;
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Map<K, Cached<V>> results = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+
+    public SingleFlight(String name, Duration ttl, int maxEntries) {
+        this.name = name;
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public V get(K key, Supplier<V> loader) {
+        if (ttlNanos > 0) {
+            Cached<V> cached = results.get(key);
+            if (cached != null && cached.expiresAt - System.nanoTime() > 0) {
+                cacheHits.increment();
+                return cached.value;
+            }
+        }
+
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> leader = inFlight.putIfAbsent(key, mine);
+        if (leader != null) {
+            coalesced.increment();
+            return await(leader);
+        }
+
+        loads.increment();
+        long startedGeneration = generation.get();
+        try {
+            V value = loader.get();
+            if (ttlNanos > 0 && generation.get() == startedGeneration) {
+                store(key, value);
+            }
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error ex) {
+            mine.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        results.clear();
+    }
+
+    public Stats stats() {
+        return new Stats(name, loads.sum(), coalesced.sum(), cacheHits.sum(), results.size());
+    }
+
+    private void store(K key, V value) {
+        long now = System.nanoTime();
+        if (results.size() >= maxEntries) {
+            results.values().removeIf(c -> c.expiresAt - now <= 0);
+            if (results.size() >= maxEntries) {
+                return;
+            }
+        }
+        results.put(key, new Cached<>(value, now + ttlNanos));
+    }
+
+    private static <V> V await(CompletableFuture<V> leader) {
+        try {
+            return leader.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException re) throw re;
+            if (ex.getCause() instanceof Error err) throw err;
+            throw ex;
+        }
+    }
+
+    private record Cached<V>(V value, long expiresAt) {
+    }
+
+    /**
+     * @param loads     loader executions
+     * @param coalesced calls that waited for another caller's load instead of running their own
+     * @param cacheHits calls answered from the short-lived result cache
+     */
+    public record Stats(String name, long loads, long coalesced, long cacheHits, int cachedEntries) {
+    }
+}
@@ -0,0 +1,46 @@
+package com.pjusto.ducks.cache;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Creates the application's {@link SingleFlight}s and drops their cached results whenever an entity
+ * type they were declared to depend on changes on any node.
+ */
+@Component
+public class SingleFlights {
+
+    private static final int MAX_ENTRIES = 256;
+
+    private final List<Registered> flights = new CopyOnWriteArrayList<>();
+
+    public <K, V> SingleFlight<K, V> create(String name, Duration ttl, EntityType... dependsOn) {
+        SingleFlight<K, V> flight = new SingleFlight<>(name, ttl, MAX_ENTRIES);
+        Set<EntityType> types = EnumSet.noneOf(EntityType.class);
+        types.addAll(List.of(dependsOn));
+        flights.add(new Registered(flight, types));
+        return flight;
+    }
+
+    public List<SingleFlight.Stats> stats() {
+        return flights.stream().map(r -> r.flight().stats()).toList();
+    }
+
+    @EventListener
+    public void onInvalidated(EntityInvalidatedEvent event) {
+        for (Registered r : flights) {
+            if (r.dependsOn().contains(event.type())) {
+                r.flight().invalidateAll();
+            }
+        }
+    }
+
+    private record Registered(SingleFlight<?, ?> flight, Set<EntityType> dependsOn) {
+    }
+}
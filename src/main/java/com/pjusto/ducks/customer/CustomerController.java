@@ -1,5 +1,10 @@
 package com.pjusto.ducks.customer;
 
+import com.pjusto.ducks.cache.EntityCacheEvictor;
+import com.pjusto.ducks.cache.EntityType;
+import com.pjusto.ducks.cache.InvalidationBus;
+import com.pjusto.ducks.search.LikePattern;
+import com.pjusto.ducks.search.SearchIndex;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -20,9 +25,20 @@ import java.time.Instant;
 public class CustomerController {
 
     private final CustomerRepository customerRepository;
-
-    public CustomerController(CustomerRepository customerRepository) {
+    private final EntityCacheEvictor cacheEvictor;
+    private final InvalidationBus invalidationBus;
+    private final SearchIndex searchIndex;
+
+    public CustomerController(
+            CustomerRepository customerRepository,
+            EntityCacheEvictor cacheEvictor,
+            InvalidationBus invalidationBus,
+            SearchIndex searchIndex
+    ) {
         this.customerRepository = customerRepository;
+        this.cacheEvictor = cacheEvictor;
+        this.invalidationBus = invalidationBus;
+        this.searchIndex = searchIndex;
     }
 
     @PostMapping
@@ -32,6 +48,8 @@ public class CustomerController {
         customer.setHasSalesDiscount(req.hasSalesDiscount());
 
         Customer saved = customerRepository.save(customer);
+        searchIndex.put(EntityType.CUSTOMER, saved.getId(), saved.getName());
+        invalidationBus.publish(EntityType.CUSTOMER, saved.getId());
 
         URI location = ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}").buildAndExpand(saved.getId()).toUri();
 
@@ -52,6 +70,9 @@ public class CustomerController {
         customer.setHasSalesDiscount(req.hasSalesDiscount());
 
         Customer saved = customerRepository.save(customer);
+        cacheEvictor.evict(Customer.class, id);
+        searchIndex.put(EntityType.CUSTOMER, id, saved.getName());
+        invalidationBus.publish(EntityType.CUSTOMER, id);
         return toResponse(saved);
     }
 
@@ -67,6 +88,9 @@ public class CustomerController {
         }
 
         Customer saved = customerRepository.save(customer);
+        cacheEvictor.evict(Customer.class, id);
+        searchIndex.put(EntityType.CUSTOMER, id, saved.getName());
+        invalidationBus.publish(EntityType.CUSTOMER, id);
         return toResponse(saved);
     }
 
@@ -76,6 +100,9 @@ public class CustomerController {
         Customer customer = customerRepository.findById(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Customer not found"));
 
         customerRepository.delete(customer);
+        cacheEvictor.evict(Customer.class, id);
+        searchIndex.remove(EntityType.CUSTOMER, id);
+        invalidationBus.publish(EntityType.CUSTOMER, id);
     }
 
     @GetMapping
@@ -84,18 +111,19 @@ public class CustomerController {
             @RequestParam(required = false) @Nullable Boolean salesDiscount,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size) {
-        Customer probe = new Customer();
         if (StringUtils.hasText(name)) {
-            probe.setName(name);
+            return customerRepository.searchByName(LikePattern.contains(name), salesDiscount, PageRequest.of(page, size))
+                    .map(CustomerController::toResponse);
         }
+
+        Customer probe = new Customer();
         if (salesDiscount != null) {
             probe.setHasSalesDiscount(salesDiscount);
         }
 
         ExampleMatcher matcher = ExampleMatcher.matching()
                 .withIgnoreNullValues()
-                .withIgnorePaths("id", "createdAt", "updatedAt")
-                .withMatcher("name", m -> m.contains().ignoreCase());
+                .withIgnorePaths("id", "createdAt", "updatedAt");
 
         Page<Customer> customers = customerRepository.findAll(Example.of(probe, matcher), PageRequest.of(page, size));
         return customers.map(CustomerController::toResponse);
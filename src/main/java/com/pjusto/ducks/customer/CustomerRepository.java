@@ -1,8 +1,26 @@
 package com.pjusto.ducks.customer;
 
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
 
+    /**
+     * Name filter for {@code GET /customers}; {@code pattern} comes from
+     * {@link com.pjusto.ducks.search.LikePattern} and is served by {@code idx_customer_name_trgm}.
+     */
+    @Query("""
+        select c from Customer c
+        where lower(c.name) like :pattern escape '!'
+          and (:salesDiscount is null or c.hasSalesDiscount = :salesDiscount)
+        """)
+    Page<Customer> searchByName(
+            @Param("pattern") String pattern,
+            @Param("salesDiscount") Boolean salesDiscount,
+            Pageable pageable
+    );
 }
@@ -0,0 +1,265 @@
+package com.pjusto.ducks.datagen;
+
+import com.pjusto.ducks.sale.SalePricing;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Fills an empty database with a {@link SyntheticDataset} and exits:
+ * <pre>
+ * ./mvnw spring-boot:run -Dspring-boot.run.profiles=datagen \
+ *     -Dspring-boot.run.arguments="--ducks.datagen.ducks=1000000 --ducks.datagen.seed=7"
+ * </pre>
+ * Every table is written with {@code COPY} in one transaction, so a failed run leaves nothing behind.
+ * Ducks go in with the child-count trigger disabled and the counts are set afterwards in one statement.
+ * Sales and items are staged, then priced from the stored {@code duck.price} and each customer's
+ * discount in set-based inserts, so they follow the same rules as {@code POST /sales}. Sequences are
+ * moved past the generated ids at the end.
+ * <p>
+ * The target tables must be empty unless {@code ducks.datagen.truncate=true}. Set {@code ducks.datagen.until}
+ * as well as the seed to reproduce a dataset on another day.
+ */
+@Component
+@Profile("datagen")
+public class DatasetGenerator implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(DatasetGenerator.class);
+
+    private static final List<String> TABLES = List.of("duck", "customer", "employee", "sale", "sale_item");
+    private static final int COPY_BUFFER = 256 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate tx;
+    private final ApplicationContext context;
+    private final SyntheticDataset.Spec spec;
+    private final boolean truncate;
+    private final boolean exitWhenDone;
+
+    public DatasetGenerator(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ApplicationContext context,
+            @Value("${ducks.datagen.seed:42}") long seed,
+            @Value("${ducks.datagen.ducks:100000}") int ducks,
+            @Value("${ducks.datagen.branching:1.2}") double branching,
+            @Value("${ducks.datagen.max-depth:8}") int maxDepth,
+            @Value("${ducks.datagen.founder-ratio:0.02}") double founderRatio,
+            @Value("${ducks.datagen.customers:20000}") int customers,
+            @Value("${ducks.datagen.discount-ratio:0.3}") double discountRatio,
+            @Value("${ducks.datagen.employees:200}") int employees,
+            @Value("${ducks.datagen.sold-ratio:0.6}") double soldRatio,
+            @Value("${ducks.datagen.max-ducks-per-sale:10}") int maxDucksPerSale,
+            @Value("${ducks.datagen.until:}") String until,
+            @Value("${ducks.datagen.days:730}") int days,
+            @Value("${ducks.datagen.truncate:false}") boolean truncate,
+            @Value("${ducks.datagen.exit-when-done:true}") boolean exitWhenDone
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.context = context;
+        this.spec = new SyntheticDataset.Spec(
+                seed, ducks, branching, maxDepth, founderRatio,
+                customers, discountRatio, employees,
+                soldRatio, maxDucksPerSale,
+                until.isBlank() ? LocalDate.now(ZoneOffset.UTC) : LocalDate.parse(until),
+                days
+        );
+        this.truncate = truncate;
+        this.exitWhenDone = exitWhenDone;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        SyntheticDataset data = new SyntheticDataset(spec);
+        log.info("Generated {} ducks, {} customers, {} employees, {} sales with {} items in {} ms",
+                spec.ducks(), spec.customers(), spec.employees(), data.sales(), data.items(), millisSince(start));
+
+        tx.executeWithoutResult(status -> load(data));
+        log.info("Loaded dataset (seed {}) in {} ms", spec.seed(), millisSince(start));
+
+        if (exitWhenDone) {
+            System.exit(SpringApplication.exit(context));
+        }
+    }
+
+    private void load(SyntheticDataset data) {
+        prepareTables();
+
+        Instant createdAt = spec.firstDay().atStartOfDay(ZoneOffset.UTC).toInstant();
+        SyntheticDataset.Names names = data.names();
+
+        jdbcTemplate.execute("ALTER TABLE duck DISABLE TRIGGER trg_duck_child_count_insert");
+        copy("COPY duck (id, name, mother_id, created_at, updated_at) FROM STDIN", out -> {
+            for (int id = 1; id <= spec.ducks(); id++) {
+                int mother = data.duckMother[id];
+                row(out, id, names.duck(), mother == 0 ? null : mother, createdAt, createdAt);
+            }
+        });
+        jdbcTemplate.execute("ALTER TABLE duck ENABLE TRIGGER trg_duck_child_count_insert");
+        jdbcTemplate.update("""
+                UPDATE duck d
+                SET child_count = c.cnt
+                FROM (
+                  SELECT mother_id, COUNT(*) AS cnt
+                  FROM duck
+                  WHERE mother_id IS NOT NULL
+                  GROUP BY mother_id
+                ) c
+                WHERE d.id = c.mother_id""");
+
+        copy("COPY customer (id, name, has_sales_discount, created_at, updated_at) FROM STDIN", out -> {
+            for (int id = 1; id <= spec.customers(); id++) {
+                row(out, id, names.person(), data.customerDiscount[id], createdAt, createdAt);
+            }
+        });
+        copy("COPY employee (id, name, cpf, employee_code, created_at, updated_at) FROM STDIN", out -> {
+            for (int id = 1; id <= spec.employees(); id++) {
+                row(out, id, names.person(), SyntheticDataset.cpf(id), SyntheticDataset.employeeCode(id), createdAt, createdAt);
+            }
+        });
+
+        if (data.sales() > 0) {
+            loadSales(data);
+        }
+
+        for (String table : TABLES) {
+            jdbcTemplate.execute("SELECT setval('" + table + "_id_seq', GREATEST((SELECT max(id) FROM " + table + "), 1))");
+            jdbcTemplate.execute("ANALYZE " + table);
+        }
+    }
+
+    private void prepareTables() {
+        if (truncate) {
+            jdbcTemplate.execute("TRUNCATE sale_item, sale, sales_daily_employee, duck, customer, employee");
+            return;
+        }
+        for (String table : TABLES) {
+            Boolean any = jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM " + table + ")", Boolean.class);
+            if (Boolean.TRUE.equals(any)) {
+                throw new IllegalStateException(
+                        "Table " + table + " is not empty; set ducks.datagen.truncate=true to replace its rows");
+            }
+        }
+    }
+
+    private void loadSales(SyntheticDataset data) {
+        jdbcTemplate.queryForObject("SELECT ensure_sale_partitions(?, ?)", Integer.class,
+                spec.firstDay().withDayOfMonth(1), spec.until().withDayOfMonth(1));
+
+        jdbcTemplate.execute("""
+                CREATE TEMP TABLE datagen_sale (
+                  id          BIGINT PRIMARY KEY,
+                  customer_id BIGINT NOT NULL,
+                  employee_id BIGINT NOT NULL,
+                  sale_date   TIMESTAMPTZ NOT NULL
+                ) ON COMMIT DROP""");
+        jdbcTemplate.execute("""
+                CREATE TEMP TABLE datagen_sale_item (
+                  id      BIGINT PRIMARY KEY,
+                  sale_id BIGINT NOT NULL,
+                  duck_id BIGINT NOT NULL
+                ) ON COMMIT DROP""");
+
+        copy("COPY datagen_sale (id, customer_id, employee_id, sale_date) FROM STDIN", out -> {
+            for (int id = 1; id <= data.sales(); id++) {
+                row(out, id, data.saleCustomer[id], data.saleEmployee[id], data.saleDate(id));
+            }
+        });
+        copy("COPY datagen_sale_item (id, sale_id, duck_id) FROM STDIN", out -> {
+            for (int i = 0; i < data.items(); i++) {
+                row(out, i + 1, data.itemSale[i], data.itemDuck[i]);
+            }
+        });
+        jdbcTemplate.execute("ANALYZE datagen_sale");
+        jdbcTemplate.execute("ANALYZE datagen_sale_item");
+
+        jdbcTemplate.update("""
+                INSERT INTO sale (id, total_before_discount, total_after_discount, customer_id, employee_id,
+                                  sale_date, created_at, updated_at)
+                SELECT s.id,
+                       SUM(d.price),
+                       SUM(ROUND(d.price * CASE WHEN c.has_sales_discount THEN ? ELSE 1 END, 2)),
+                       s.customer_id, s.employee_id, s.sale_date, s.sale_date, s.sale_date
+                FROM datagen_sale s
+                JOIN customer c          ON c.id = s.customer_id
+                JOIN datagen_sale_item i ON i.sale_id = s.id
+                JOIN duck d              ON d.id = i.duck_id
+                GROUP BY s.id, s.customer_id, s.employee_id, s.sale_date
+                ORDER BY s.sale_date""", SalePricing.DISCOUNT_FACTOR);
+        jdbcTemplate.update("""
+                INSERT INTO sale_item (id, price_at_sale, sale_id, duck_id, sale_date)
+                SELECT i.id,
+                       ROUND(d.price * CASE WHEN c.has_sales_discount THEN ? ELSE 1 END, 2),
+                       s.id, i.duck_id, s.sale_date
+                FROM datagen_sale_item i
+                JOIN datagen_sale s ON s.id = i.sale_id
+                JOIN customer c     ON c.id = s.customer_id
+                JOIN duck d         ON d.id = i.duck_id
+                ORDER BY s.sale_date, i.id""", SalePricing.DISCOUNT_FACTOR);
+
+        // same UTC-day rollup as V4
+        jdbcTemplate.update("""
+                INSERT INTO sales_daily_employee (day, employee_id, sale_count, revenue)
+                SELECT (s.sale_date AT TIME ZONE 'UTC')::date,
+                       s.employee_id,
+                       COUNT(*),
+                       SUM(s.total_after_discount)
+                FROM sale s
+                GROUP BY 1, 2""");
+        jdbcTemplate.execute("ANALYZE sales_daily_employee");
+    }
+
+    private void copy(String sql, RowSource rows) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) con -> {
+            PGConnection pg = con.unwrap(PGConnection.class);
+            try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                    new PGCopyOutputStream(pg, sql), StandardCharsets.UTF_8), COPY_BUFFER)) {
+                rows.write(out);
+            } catch (IOException ex) {
+                if (ex.getCause() instanceof SQLException e) throw e;
+                throw new UncheckedIOException(ex);
+            }
+            return null;
+        });
+    }
+
+    /** One row of COPY text format. Values never contain tabs, newlines or backslashes. */
+    private static void row(Writer out, Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) out.write('\t');
+            out.write(values[i] == null ? "\\N" : values[i].toString());
+        }
+        out.write('\n');
+    }
+
+    private static long millisSince(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    @FunctionalInterface
+    private interface RowSource {
+        void write(Writer out) throws IOException;
+    }
+}
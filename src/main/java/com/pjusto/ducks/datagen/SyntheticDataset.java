@@ -0,0 +1,278 @@
+package com.pjusto.ducks.datagen;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * A flock, its customers, employees and sales, drawn from a seed: the same {@link Spec} always yields the
+ * same rows. Ids are 1-based array indexes and mothers always come before their daughters, so rows can be
+ * inserted in id order.
+ * <p>
+ * Genealogy grows breadth first: every duck has a geometric number of daughters with mean
+ * {@code branching}, nobody below {@code maxDepth} has any, and new founders start lineages at
+ * {@code founderRatio} and whenever every lineage has died out. Sold ducks are spread over sales of one
+ * to {@code maxDucksPerSale} ducks, each duck sold at most once. Sale days lean towards weekends and grow
+ * over the period, a few customers and employees account for most sales, and sales happen during
+ * business hours in Brazil.
+ */
+final class SyntheticDataset {
+
+    private static final String[] FIRST_NAMES = {
+            "Ana", "Bruno", "Carla", "Daniel", "Eduarda", "Felipe", "Gabriela", "Heitor", "Isabela", "João",
+            "Larissa", "Lucas", "Mariana", "Mateus", "Natália", "Otávio", "Patrícia", "Rafael", "Sofia", "Thiago",
+            "Valentina", "Vinícius", "Yasmin", "Zeca", "Beatriz", "Caio", "Fernanda", "Gustavo", "Helena", "Igor"
+    };
+    private static final String[] LAST_NAMES = {
+            "Silva", "Santos", "Oliveira", "Souza", "Rodrigues", "Ferreira", "Alves", "Pereira", "Lima", "Gomes",
+            "Costa", "Ribeiro", "Martins", "Carvalho", "Almeida", "Lopes", "Soares", "Fernandes", "Vieira", "Barbosa",
+            "Rocha", "Dias", "Nascimento", "Andrade", "Moreira", "Nunes", "Marques", "Machado", "Mendes", "Freitas"
+    };
+    private static final String[] DUCK_NAMES = {
+            "Patinho", "Pata", "Quack", "Bico", "Pena", "Lagoa", "Marreco", "Penugem", "Asa", "Nadadeira",
+            "Pingo", "Flor", "Sol", "Nuvem", "Trovão", "Brisa", "Caramelo", "Pipoca", "Amendoim", "Biscoito"
+    };
+    private static final String[] DUCK_TRAITS = {
+            "Dourado", "Manchado", "Branco", "Pintado", "Ligeiro", "Sonolento", "Valente", "Tímido", "Faminto", "Curioso"
+    };
+
+    private static final double WEEKEND_WEIGHT = 1.5;
+    private static final double GROWTH_OVER_PERIOD = 1.0;
+    // 09:00 to 19:00 in Brasília (UTC-3)
+    private static final int OPENING_SECOND_UTC = 12 * 3600;
+    private static final int BUSINESS_SECONDS = 10 * 3600;
+
+    /**
+     * @param until       sales happen on the {@code days} days before this one (UTC)
+     * @param soldRatio   share of ducks that end up in a sale
+     */
+    record Spec(
+            long seed,
+            int ducks,
+            double branching,
+            int maxDepth,
+            double founderRatio,
+            int customers,
+            double discountRatio,
+            int employees,
+            double soldRatio,
+            int maxDucksPerSale,
+            LocalDate until,
+            int days
+    ) {
+        Spec {
+            if (ducks < 0 || customers < 0 || employees < 0) throw new IllegalArgumentException("Counts must be >= 0");
+            if (soldRatio > 0 && ducks > 0 && (customers == 0 || employees == 0)) {
+                throw new IllegalArgumentException("Sales need at least one customer and one employee");
+            }
+            if (branching < 0) throw new IllegalArgumentException("branching must be >= 0");
+            if (maxDepth < 0 || maxDepth > Byte.MAX_VALUE) throw new IllegalArgumentException("maxDepth must be in [0, 127]");
+            if (founderRatio < 0 || founderRatio > 1) throw new IllegalArgumentException("founderRatio must be in [0, 1]");
+            if (discountRatio < 0 || discountRatio > 1) throw new IllegalArgumentException("discountRatio must be in [0, 1]");
+            if (soldRatio < 0 || soldRatio > 1) throw new IllegalArgumentException("soldRatio must be in [0, 1]");
+            if (maxDucksPerSale < 1) throw new IllegalArgumentException("maxDucksPerSale must be >= 1");
+            if (days < 1) throw new IllegalArgumentException("days must be >= 1");
+        }
+
+        LocalDate firstDay() {
+            return until.minusDays(days);
+        }
+    }
+
+    private final Spec spec;
+
+    /** Mother id of each duck, 0 for founders; index 0 is unused. */
+    final int[] duckMother;
+    final boolean[] customerDiscount;
+
+    final int[] saleCustomer;
+    final int[] saleEmployee;
+    final long[] saleEpochSecond;
+
+    /** Duck and sale of each sale item, in sale order. */
+    final int[] itemDuck;
+    final int[] itemSale;
+
+    SyntheticDataset(Spec spec) {
+        this.spec = spec;
+        SplittableRandom root = new SplittableRandom(spec.seed());
+
+        this.duckMother = genealogy(root.split());
+        this.customerDiscount = discounts(root.split());
+
+        SplittableRandom salesRandom = root.split();
+        this.itemDuck = soldDucks(salesRandom);
+        this.itemSale = new int[itemDuck.length];
+        int sales = groupIntoSales(salesRandom);
+
+        this.saleCustomer = skewed(salesRandom, sales, spec.customers(), 2.0);
+        this.saleEmployee = skewed(salesRandom, sales, spec.employees(), 1.5);
+        this.saleEpochSecond = saleTimes(salesRandom, sales);
+    }
+
+    Spec spec() {
+        return spec;
+    }
+
+    int sales() {
+        return saleCustomer.length - 1;
+    }
+
+    int items() {
+        return itemDuck.length;
+    }
+
+    /** Writes every duck, customer and employee name in id order; depends only on the seed. */
+    Names names() {
+        return new Names(new SplittableRandom(spec.seed() ^ 0x5DEECE66DL));
+    }
+
+    private int[] genealogy(SplittableRandom random) {
+        int n = spec.ducks();
+        int[] mother = new int[n + 1];
+        byte[] depth = new byte[n + 1];
+        double p = 1.0 / (1.0 + spec.branching());
+
+        int next = 1;
+        int head = 1;
+        while (next <= n) {
+            if (head == next || random.nextDouble() < spec.founderRatio()) {
+                next++;
+                continue;
+            }
+            int m = head++;
+            if (depth[m] >= spec.maxDepth()) continue;
+            int daughters = geometric(random, p);
+            for (int k = 0; k < daughters && next <= n; k++, next++) {
+                mother[next] = m;
+                depth[next] = (byte) (depth[m] + 1);
+            }
+        }
+        return mother;
+    }
+
+    private boolean[] discounts(SplittableRandom random) {
+        boolean[] discount = new boolean[spec.customers() + 1];
+        for (int i = 1; i < discount.length; i++) {
+            discount[i] = random.nextDouble() < spec.discountRatio();
+        }
+        return discount;
+    }
+
+    private int[] soldDucks(SplittableRandom random) {
+        int[] sold = new int[spec.ducks()];
+        int count = 0;
+        for (int id = 1; id <= spec.ducks(); id++) {
+            if (random.nextDouble() < spec.soldRatio()) sold[count++] = id;
+        }
+        sold = Arrays.copyOf(sold, count);
+        for (int i = count - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = sold[i];
+            sold[i] = sold[j];
+            sold[j] = t;
+        }
+        return sold;
+    }
+
+    /** Fills {@link #itemSale}; most sales have one or two ducks. Returns the number of sales. */
+    private int groupIntoSales(SplittableRandom random) {
+        int sale = 0;
+        int i = 0;
+        while (i < itemDuck.length) {
+            sale++;
+            int size = Math.min(1 + geometric(random, 0.6), spec.maxDucksPerSale());
+            for (int k = 0; k < size && i < itemDuck.length; k++) {
+                itemSale[i++] = sale;
+            }
+        }
+        return sale;
+    }
+
+    /** 1-based ids in {@code [1, bound]} drawn so that low ids are picked more often the larger {@code skew} is. */
+    private static int[] skewed(SplittableRandom random, int count, int bound, double skew) {
+        int[] ids = new int[count + 1];
+        for (int i = 1; i <= count; i++) {
+            ids[i] = 1 + (int) (bound * Math.pow(random.nextDouble(), skew));
+        }
+        return ids;
+    }
+
+    private long[] saleTimes(SplittableRandom random, int count) {
+        LocalDate first = spec.firstDay();
+        double[] cumulative = new double[spec.days()];
+        double total = 0;
+        for (int d = 0; d < cumulative.length; d++) {
+            DayOfWeek dow = first.plusDays(d).getDayOfWeek();
+            double weight = (1 + GROWTH_OVER_PERIOD * d / cumulative.length)
+                    * (dow == DayOfWeek.SATURDAY || dow == DayOfWeek.SUNDAY ? WEEKEND_WEIGHT : 1);
+            total += weight;
+            cumulative[d] = total;
+        }
+
+        long firstEpochSecond = first.atStartOfDay(ZoneOffset.UTC).toEpochSecond();
+        long[] times = new long[count + 1];
+        for (int i = 1; i <= count; i++) {
+            int day = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+            if (day < 0) day = -day - 1;
+            times[i] = firstEpochSecond + day * 86_400L + OPENING_SECOND_UTC + random.nextInt(BUSINESS_SECONDS);
+        }
+        return times;
+    }
+
+    Instant saleDate(int sale) {
+        return Instant.ofEpochSecond(saleEpochSecond[sale]);
+    }
+
+    /** Number of failures before the first success, success probability {@code p}; mean (1 - p) / p. */
+    private static int geometric(SplittableRandom random, double p) {
+        if (p >= 1) return 0;
+        return (int) Math.floor(Math.log(1 - random.nextDouble()) / Math.log(1 - p));
+    }
+
+    final class Names {
+        private final SplittableRandom random;
+
+        private Names(SplittableRandom random) {
+            this.random = random;
+        }
+
+        String duck() {
+            return pick(DUCK_NAMES) + " " + pick(DUCK_TRAITS) + " " + (1 + random.nextInt(999));
+        }
+
+        String person() {
+            return pick(FIRST_NAMES) + " " + pick(LAST_NAMES) + " " + pick(LAST_NAMES);
+        }
+
+        private String pick(String[] names) {
+            return names[random.nextInt(names.length)];
+        }
+    }
+
+    /** Eleven digits with valid CPF check digits, unique per {@code n}. */
+    static String cpf(int n) {
+        String base = String.format("%09d", 100_000_000 + n);
+        int[] d = new int[11];
+        for (int i = 0; i < 9; i++) d[i] = base.charAt(i) - '0';
+        d[9] = cpfCheckDigit(d, 9);
+        d[10] = cpfCheckDigit(d, 10);
+        StringBuilder out = new StringBuilder(11);
+        for (int digit : d) out.append(digit);
+        return out.toString();
+    }
+
+    private static int cpfCheckDigit(int[] d, int length) {
+        int sum = 0;
+        for (int i = 0; i < length; i++) sum += d[i] * (length + 1 - i);
+        int rest = sum % 11;
+        return rest < 2 ? 0 : 11 - rest;
+    }
+
+    static String employeeCode(int n) {
+        return String.format("F%06d", n);
+    }
+}
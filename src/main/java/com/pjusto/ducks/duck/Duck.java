@@ -6,13 +6,17 @@ import jakarta.validation.constraints.PositiveOrZero;
 import lombok.Getter;
 import lombok.Setter;
 import org.hibernate.annotations.CreationTimestamp;
-import org.hibernate.annotations.Formula;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
 import java.time.Instant;
 
-
+/**
+ * Deliberately not in the second-level cache: {@code child_count} of a mother changes in the database
+ * whenever one of her children is inserted, re-parented or deleted, through a trigger Hibernate never sees,
+ * so a cached mother would keep serving a stale count. Caching ducks needs those writes to evict the
+ * affected mothers first.
+ */
 @Entity
 @Table(indexes = @Index(name = "idx_duck_mother", columnList = "mother_id"))
 @Getter
@@ -21,24 +25,31 @@ import java.time.Instant;
 public class Duck {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "duck_id_seq")
+    @SequenceGenerator(name = "duck_id_seq", sequenceName = "duck_id_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
     @Column(nullable = false, length = 255)
     private String name;
 
-    @Formula("""
-      (SELECT CASE
-          WHEN COUNT(*) = 0 THEN 70.00
-          WHEN COUNT(*) = 1 THEN 50.00
-          ELSE 25.00
-        END
-       FROM duck d2
-       WHERE d2.mother_id = id)
-      """)
+    /**
+     * Maintained by the {@code trg_duck_child_count_insert/update/delete} triggers (function
+     * {@code duck_child_count_sync}) whenever a child is inserted, re-assigned or deleted;
+     * never written by the application. Not read back after insert, so that duck inserts can be batched:
+     * a new duck has no children yet, and reads that need a fresh count go through the projections.
+     */
+    @Column(name = "child_count", nullable = false, insertable = false, updatable = false)
+    private Integer childCount = 0;
+
+    /**
+     * Stored generated column derived from {@code child_count}:
+     * 70.00 with no children, 50.00 with one, 25.00 otherwise. Starts at the childless price for the
+     * same reason {@link #childCount} starts at 0.
+     */
     @PositiveOrZero
-    private BigDecimal price;
+    @Column(nullable = false, precision = 12, scale = 2, insertable = false, updatable = false)
+    private BigDecimal price = new BigDecimal("70.00");
 
     @ManyToOne(fetch = FetchType.LAZY, optional = true)
     @JoinColumn(name = "mother_id", foreignKey = @ForeignKey(name = "fk_duck_mother"))
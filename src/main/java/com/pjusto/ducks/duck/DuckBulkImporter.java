@@ -0,0 +1,420 @@
+package com.pjusto.ducks.duck;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.Array;
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * Creates many ducks in one transaction through PostgreSQL {@code COPY}.
+ * <p>
+ * Rows are parsed while the request body is read and streamed straight into a temporary staging table,
+ * so neither the body nor the parsed rows are held in memory. The result is not bounded: it lists one
+ * small {@link ImportedDuck} per row, which the caller needs to update the genealogy and search indexes
+ * and to echo ids back for in-file keys. Everything that depends on other rows is then checked with
+ * set-based statements over the staging table: duplicate keys, unknown mothers, self-mothers and cycles
+ * among in-file mother references. Ids are taken from {@code duck_id_seq} in whole pooled blocks, and a
+ * single {@code INSERT ... SELECT} resolves every {@code motherKey} to its id.
+ */
+@Component
+public class DuckBulkImporter {
+
+    /** Must match the {@code allocationSize} of {@link Duck} and the sequence increment set in V5. */
+    private static final int ID_BLOCK = 50;
+    private static final int MAX_ERRORS = 20;
+    private static final int MAX_NAME_LENGTH = 255;
+
+    private static final List<String> CSV_COLUMNS = List.of("key", "name", "motherId", "motherKey");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate tx;
+    private final ObjectReader ndjsonReader;
+
+    public DuckBulkImporter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.ndjsonReader = objectMapper.readerFor(Row.class);
+    }
+
+    public enum Format { CSV, NDJSON }
+
+    /**
+     * One input line. {@code key} only needs to be unique within the file and is what other rows
+     * reference through {@code motherKey}; {@code motherId} points at a duck that already exists.
+     */
+    public record Row(String key, String name, Long motherId, String motherKey) {
+    }
+
+    public record ImportedDuck(long line, String key, long id, Long motherId) {
+    }
+
+    /**
+     * Imports all rows or none.
+     *
+     * @return the created ducks in input order
+     * @throws ResponseStatusException 400 listing the first problems found if any row is invalid
+     */
+    public List<ImportedDuck> importDucks(InputStream body, Format format) {
+        return tx.execute(status -> {
+            jdbcTemplate.execute("""
+                    CREATE TEMP TABLE duck_import (
+                      line       BIGINT PRIMARY KEY,
+                      key        TEXT,
+                      name       TEXT NOT NULL,
+                      mother_id  BIGINT,
+                      mother_key TEXT,
+                      id         BIGINT
+                    ) ON COMMIT DROP""");
+
+            List<String> errors = new ArrayList<>();
+            long rows = jdbcTemplate.execute((ConnectionCallback<Long>) con -> copyRows(con.unwrap(PGConnection.class), body, format, errors));
+            rejectIfAny(errors);
+            if (rows == 0) {
+                return List.of();
+            }
+
+            jdbcTemplate.execute("CREATE INDEX ON duck_import (key)");
+            jdbcTemplate.execute("CREATE INDEX ON duck_import (mother_key)");
+            jdbcTemplate.execute("ANALYZE duck_import");
+
+            validate(errors);
+            rejectIfAny(errors);
+
+            assignIds(rows);
+            jdbcTemplate.update("""
+                    INSERT INTO duck (id, name, mother_id)
+                    SELECT i.id, i.name, COALESCE(i.mother_id, m.id)
+                    FROM duck_import i
+                    LEFT JOIN duck_import m ON m.key = i.mother_key
+                    ORDER BY i.line""");
+
+            return jdbcTemplate.query("""
+                    SELECT i.line, i.key, i.id, COALESCE(i.mother_id, m.id) AS mother_id
+                    FROM duck_import i
+                    LEFT JOIN duck_import m ON m.key = i.mother_key
+                    ORDER BY i.line""",
+                    (rs, n) -> new ImportedDuck(
+                            rs.getLong("line"),
+                            rs.getString("key"),
+                            rs.getLong("id"),
+                            rs.getObject("mother_id", Long.class)));
+        });
+    }
+
+    private long copyRows(PGConnection pg, InputStream body, Format format, List<String> errors) throws SQLException {
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                new PGCopyOutputStream(pg, "COPY duck_import (line, key, name, mother_id, mother_key) FROM STDIN"),
+                StandardCharsets.UTF_8), 64 * 1024)) {
+            Reader in = new InputStreamReader(body, StandardCharsets.UTF_8);
+            return (format == Format.CSV) ? copyCsv(in, out, errors) : copyNdjson(in, out, errors);
+        } catch (IOException ex) {
+            if (ex.getCause() instanceof SQLException sql) throw sql;
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Could not read import body: " + ex.getMessage(), ex);
+        }
+    }
+
+    private long copyCsv(Reader in, Writer out, List<String> errors) throws IOException {
+        CsvReader csv = new CsvReader(in);
+        List<String> first = csv.next();
+        if (first == null) {
+            return 0;
+        }
+        List<String> header = first.stream().map(String::trim).toList();
+        int[] column = new int[CSV_COLUMNS.size()];
+        for (int c = 0; c < column.length; c++) {
+            column[c] = header.indexOf(CSV_COLUMNS.get(c));
+        }
+        if (column[1] < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "CSV header must contain a `name` column");
+        }
+
+        long rows = 0;
+        List<String> fields;
+        while ((fields = csv.next()) != null) {
+            long line = csv.line();
+            if (fields.size() == 1 && fields.get(0).isEmpty()) {
+                continue;
+            }
+            Long motherId = null;
+            String rawMotherId = field(fields, column[2]);
+            if (rawMotherId != null) {
+                try {
+                    motherId = Long.valueOf(rawMotherId);
+                } catch (NumberFormatException ex) {
+                    addError(errors, line, "motherId is not a number: " + rawMotherId);
+                    continue;
+                }
+            }
+            Row row = new Row(field(fields, column[0]), field(fields, column[1]), motherId, field(fields, column[3]));
+            if (writeRow(out, line, row, errors)) rows++;
+        }
+        return rows;
+    }
+
+    private long copyNdjson(Reader in, Writer out, List<String> errors) throws IOException {
+        long line = 0;
+        long rows = 0;
+        try (MappingIterator<Row> it = ndjsonReader.readValues(in)) {
+            while (it.hasNextValue()) {
+                Row row = it.nextValue();
+                line = it.getCurrentLocation().getLineNr();
+                if (writeRow(out, line, row, errors)) rows++;
+            }
+        } catch (com.fasterxml.jackson.core.JacksonException ex) {
+            long at = (ex.getLocation() != null) ? ex.getLocation().getLineNr() : line + 1;
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid NDJSON near line " + at + ": " + ex.getOriginalMessage());
+        }
+        return rows;
+    }
+
+    /** Checks what a single row can tell on its own and appends it in COPY text format. */
+    private static boolean writeRow(Writer out, long line, Row row, List<String> errors) throws IOException {
+        if (!StringUtils.hasText(row.name())) {
+            addError(errors, line, "name must not be blank");
+            return false;
+        }
+        if (row.name().length() > MAX_NAME_LENGTH) {
+            addError(errors, line, "name must be at most " + MAX_NAME_LENGTH + " characters");
+            return false;
+        }
+        if (row.motherId() != null && StringUtils.hasText(row.motherKey())) {
+            addError(errors, line, "motherId and motherKey are mutually exclusive");
+            return false;
+        }
+        if (!errors.isEmpty()) {
+            // the import is already rejected; keep parsing only to report further problems
+            return false;
+        }
+        out.write(Long.toString(line));
+        out.write('\t');
+        writeText(out, StringUtils.hasText(row.key()) ? row.key() : null);
+        out.write('\t');
+        writeText(out, row.name());
+        out.write('\t');
+        writeText(out, (row.motherId() != null) ? row.motherId().toString() : null);
+        out.write('\t');
+        writeText(out, StringUtils.hasText(row.motherKey()) ? row.motherKey() : null);
+        out.write('\n');
+        return true;
+    }
+
+    private static void writeText(Writer out, String value) throws IOException {
+        if (value == null) {
+            out.write("\\N");
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            switch (ch) {
+                case '\\' -> out.write("\\\\");
+                case '\t' -> out.write("\\t");
+                case '\n' -> out.write("\\n");
+                case '\r' -> out.write("\\r");
+                default -> out.write(ch);
+            }
+        }
+    }
+
+    private void validate(List<String> errors) {
+        collect(errors, """
+                SELECT min(line) AS line, 'duplicate key: ' || key AS message
+                FROM duck_import
+                WHERE key IS NOT NULL
+                GROUP BY key
+                HAVING count(*) > 1
+                ORDER BY 1""");
+        collect(errors, """
+                SELECT i.line, 'mother duck not found: id=' || i.mother_id AS message
+                FROM duck_import i
+                WHERE i.mother_id IS NOT NULL
+                  AND NOT EXISTS (SELECT 1 FROM duck d WHERE d.id = i.mother_id)
+                ORDER BY 1""");
+        collect(errors, """
+                SELECT i.line, 'a duck cannot be its own mother: key=' || i.key AS message
+                FROM duck_import i
+                WHERE i.mother_key = i.key
+                ORDER BY 1""");
+        collect(errors, """
+                SELECT i.line, 'motherKey not found in file: ' || i.mother_key AS message
+                FROM duck_import i
+                WHERE i.mother_key IS NOT NULL
+                  AND NOT EXISTS (SELECT 1 FROM duck_import m WHERE m.key = i.mother_key)
+                ORDER BY 1""");
+        if (!errors.isEmpty()) {
+            return;
+        }
+        // Existing ducks never point at new ones, so a cycle can only run through motherKey links.
+        // With unique keys every row reachable from a root is reached exactly once; whatever is left
+        // is on a cycle or descends from one.
+        collect(errors, """
+                WITH RECURSIVE reachable AS (
+                  SELECT line, key FROM duck_import WHERE mother_key IS NULL
+                  UNION ALL
+                  SELECT c.line, c.key
+                  FROM duck_import c
+                  JOIN reachable r ON c.mother_key = r.key
+                )
+                SELECT i.line, 'mother chain forms a cycle: key=' || i.key AS message
+                FROM duck_import i
+                WHERE NOT EXISTS (SELECT 1 FROM reachable r WHERE r.line = i.line)
+                ORDER BY 1""");
+    }
+
+    private void collect(List<String> errors, String sql) {
+        if (errors.size() >= MAX_ERRORS) {
+            return;
+        }
+        jdbcTemplate.query(sql + " LIMIT " + (MAX_ERRORS - errors.size()),
+                rs -> { addError(errors, rs.getLong("line"), rs.getString("message")); });
+    }
+
+    /**
+     * Reserves ids the way Hibernate's pooled optimizer does: each {@code nextval} is the top of a block
+     * of {@link #ID_BLOCK} ids nobody else will use. Blocks whose bottom would fall below 1 (the very first
+     * call on a fresh sequence) are skipped, as Hibernate does.
+     */
+    private void assignIds(long rows) {
+        int blocks = (int) ((rows + ID_BLOCK - 1) / ID_BLOCK);
+        List<Long> tops = new ArrayList<>(blocks);
+        while (tops.size() < blocks) {
+            for (Long top : jdbcTemplate.queryForList(
+                    "SELECT nextval('duck_id_seq') FROM generate_series(1, ?)", Long.class, blocks - tops.size())) {
+                if (top - ID_BLOCK + 1 >= 1) tops.add(top);
+            }
+        }
+        jdbcTemplate.execute((ConnectionCallback<Integer>) con -> {
+            Array topArray = con.createArrayOf("bigint", tops.toArray());
+            try (var ps = con.prepareStatement("""
+                    UPDATE duck_import i
+                    SET id = b.top - ? + 1 + (r.n % ?)
+                    FROM (SELECT line, row_number() OVER (ORDER BY line) - 1 AS n FROM duck_import) r
+                    JOIN unnest(?) WITH ORDINALITY AS b(top, ord) ON b.ord = r.n / ? + 1
+                    WHERE i.line = r.line""")) {
+                ps.setInt(1, ID_BLOCK);
+                ps.setInt(2, ID_BLOCK);
+                ps.setArray(3, topArray);
+                ps.setInt(4, ID_BLOCK);
+                return ps.executeUpdate();
+            } finally {
+                topArray.free();
+            }
+        });
+    }
+
+    private static String field(List<String> fields, int index) {
+        if (index < 0 || index >= fields.size()) return null;
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static void addError(List<String> errors, long line, String message) {
+        if (errors.size() < MAX_ERRORS) {
+            errors.add("line " + line + ": " + message);
+        }
+    }
+
+    private static void rejectIfAny(List<String> errors) {
+        if (!errors.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Import rejected; " + String.join("; ", errors));
+        }
+    }
+
+    /**
+     * Minimal RFC 4180 reader: comma separated, double-quoted fields may contain commas, quotes ({@code ""})
+     * and line breaks. Tracks physical lines ({@code \n}, {@code \r\n} or a lone {@code \r}) so errors
+     * point at the right place even after a multi-line field.
+     */
+    static final class CsvReader {
+        private final Reader in;
+        private int pending = -2;
+        /** Line breaks read from {@code in} so far. */
+        private long breaks;
+        private boolean afterCr;
+        private long recordLine;
+
+        CsvReader(Reader in) {
+            this.in = (in instanceof BufferedReader) ? in : new BufferedReader(in);
+        }
+
+        /** @return the next record, or {@code null} at end of input */
+        List<String> next() throws IOException {
+            // a pending character was read ahead after a CR; if it is itself a CR, it was already counted
+            recordLine = breaks + 1 - (pending == '\r' ? 1 : 0);
+            int ch = read();
+            if (ch == -1) return null;
+
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (ch == -1) {
+                        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unterminated quoted CSV field");
+                    }
+                    if (ch == '"') {
+                        int after = read();
+                        if (after == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            ch = after;
+                            continue;
+                        }
+                    } else {
+                        field.append((char) ch);
+                    }
+                } else if (ch == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (ch == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (ch == '\n' || ch == -1) {
+                    break;
+                } else if (ch == '\r') {
+                    int after = read();
+                    if (after != '\n') pending = after;
+                    break;
+                } else {
+                    field.append((char) ch);
+                }
+                ch = read();
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+
+        private int read() throws IOException {
+            if (pending != -2) {
+                int ch = pending;
+                pending = -2;
+                return ch;
+            }
+            int ch = in.read();
+            if (ch == '\r' || (ch == '\n' && !afterCr)) {
+                breaks++;
+            }
+            afterCr = (ch == '\r');
+            return ch;
+        }
+
+        /** 1-based physical line on which the last record returned by {@link #next()} starts. */
+        long line() {
+            return recordLine;
+        }
+    }
+}
@@ -1,35 +1,75 @@
 package com.pjusto.ducks.duck;
 
-import com.pjusto.ducks.sale.SaleItem;
+import com.pjusto.ducks.cache.EntityType;
+import com.pjusto.ducks.cache.InvalidationBus;
+import com.pjusto.ducks.export.ExportFormat;
+import com.pjusto.ducks.export.ExportWriter;
+import com.pjusto.ducks.pagination.KeysetCursor;
+import com.pjusto.ducks.pagination.KeysetSlice;
 import com.pjusto.ducks.sale.SaleItemRepository;
+import com.pjusto.ducks.sale.SaleRepository;
+import com.pjusto.ducks.search.LikePattern;
+import com.pjusto.ducks.search.SearchIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import org.springframework.data.domain.*;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.Nullable;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.net.URI;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneOffset;
+import java.util.List;
 import java.util.Objects;
 
 @RestController
 @RequestMapping("/ducks")
 public class DuckController {
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
     private final DuckRepository duckRepository;
     private final SaleItemRepository saleItemRepository;
-
-    public DuckController(DuckRepository duckRepository, SaleItemRepository saleItemRepository) {
+    private final GenealogyIndex genealogyIndex;
+    private final DuckBulkImporter bulkImporter;
+    private final InvalidationBus invalidationBus;
+    private final SearchIndex searchIndex;
+    private final TransactionTemplate readOnlyTx;
+    private final ObjectMapper objectMapper;
+
+    public DuckController(
+            DuckRepository duckRepository,
+            SaleItemRepository saleItemRepository,
+            GenealogyIndex genealogyIndex,
+            DuckBulkImporter bulkImporter,
+            InvalidationBus invalidationBus,
+            SearchIndex searchIndex,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper
+    ) {
         this.duckRepository = duckRepository;
         this.saleItemRepository = saleItemRepository;
+        this.genealogyIndex = genealogyIndex;
+        this.bulkImporter = bulkImporter;
+        this.invalidationBus = invalidationBus;
+        this.searchIndex = searchIndex;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping
@@ -39,6 +79,9 @@ public class DuckController {
         duck.setMother(resolveMother(req.motherId(), null));
 
         Duck saved = duckRepository.save(duck);
+        updateGenealogy(() -> genealogyIndex.put(saved.getId(), req.motherId()), saved.getId());
+        searchIndex.put(EntityType.DUCK, saved.getId(), saved.getName());
+        invalidationBus.publish(EntityType.DUCK, saved.getId());
 
         URI location = ServletUriComponentsBuilder
                 .fromCurrentRequest()
@@ -49,6 +92,44 @@ public class DuckController {
         return ResponseEntity.created(location).body(toResponse(saved));
     }
 
+    /**
+     * Creates many ducks at once from CSV (header with {@code name} and optionally {@code key}, {@code motherId},
+     * {@code motherKey}) or NDJSON objects with the same fields. All rows are imported or none; a 400 lists the
+     * first problems found.
+     */
+    @PostMapping(value = "/bulk", consumes = {"text/csv", "application/x-ndjson"})
+    @ResponseStatus(HttpStatus.CREATED)
+    public DuckBulkImportResponse bulkCreate(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body
+    ) {
+        DuckBulkImporter.Format format = MediaType.parseMediaType(contentType).isCompatibleWith(TEXT_CSV)
+                ? DuckBulkImporter.Format.CSV
+                : DuckBulkImporter.Format.NDJSON;
+
+        List<DuckBulkImporter.ImportedDuck> imported = bulkImporter.importDucks(body, format);
+
+        long[] importedIds = imported.stream().mapToLong(DuckBulkImporter.ImportedDuck::id).toArray();
+        updateGenealogy(() -> {
+            // mothers first, so every put below finds its mother already in the index
+            imported.forEach(d -> genealogyIndex.put(d.id(), null));
+            imported.stream()
+                    .filter(d -> d.motherId() != null)
+                    .forEach(d -> genealogyIndex.put(d.id(), d.motherId()));
+        }, importedIds);
+        if (importedIds.length > 0) {
+            searchIndex.refresh(EntityType.DUCK, importedIds);
+        }
+        invalidationBus.publish(EntityType.DUCK, importedIds);
+
+        return new DuckBulkImportResponse(
+                imported.size(),
+                imported.stream()
+                        .map(d -> new DuckBulkImportItem(d.line(), d.key(), d.id(), d.motherId()))
+                        .toList()
+        );
+    }
+
     @GetMapping("/{id}")
     public DuckWithPriceResponse getById(@PathVariable Long id) {
         Duck duck = duckRepository.findById(id)
@@ -65,6 +146,9 @@ public class DuckController {
         duck.setMother(resolveMother(req.motherId(), id));
 
         Duck saved = duckRepository.save(duck);
+        updateGenealogy(() -> genealogyIndex.put(id, req.motherId()), id);
+        searchIndex.put(EntityType.DUCK, id, saved.getName());
+        invalidationBus.publish(EntityType.DUCK, id);
         return toResponse(saved);
     }
 
@@ -81,6 +165,11 @@ public class DuckController {
         }
 
         Duck saved = duckRepository.save(duck);
+        if (req.motherId() != null) {
+            updateGenealogy(() -> genealogyIndex.put(id, req.motherId()), id);
+        }
+        searchIndex.put(EntityType.DUCK, id, saved.getName());
+        invalidationBus.publish(EntityType.DUCK, id);
         return toResponse(saved);
     }
 
@@ -91,6 +180,31 @@ public class DuckController {
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Duck not found"));
 
         duckRepository.delete(duck);
+        genealogyIndex.remove(id);
+        searchIndex.remove(EntityType.DUCK, id);
+        invalidationBus.publish(EntityType.DUCK, id);
+    }
+
+    @GetMapping("/{id}/descendants")
+    public GenealogyResponse descendants(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "10") int maxDepth,
+            @RequestParam(defaultValue = "1000") int limit
+    ) {
+        if (maxDepth <= 0) throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "maxDepth must be > 0");
+        if (limit <= 0) throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be > 0");
+        requireIndexed(id);
+        return toGenealogyResponse(id, genealogyIndex.descendants(id, maxDepth, limit));
+    }
+
+    @GetMapping("/{id}/ancestors")
+    public GenealogyResponse ancestors(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "10") int maxDepth
+    ) {
+        if (maxDepth <= 0) throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "maxDepth must be > 0");
+        requireIndexed(id);
+        return toGenealogyResponse(id, genealogyIndex.ancestors(id, maxDepth));
     }
 
     @GetMapping
@@ -100,20 +214,32 @@ public class DuckController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size
     ) {
-        Page<DuckRepository.DuckWithPrice> p = duckRepository.searchWithPrice(
-                (name == null || name.isBlank()) ? null : "%"+name.toLowerCase()+"%",
-                motherId,
-                PageRequest.of(page, size)
-        );
+        Page<DuckRepository.DuckWithPrice> p = StringUtils.hasText(name)
+                ? duckRepository.searchWithPriceByName(LikePattern.contains(name), motherId, PageRequest.of(page, size))
+                : duckRepository.searchWithPrice(motherId, PageRequest.of(page, size));
 
-        return p.map(row -> new DuckWithPriceResponse(
-                row.getId(),
-                row.getName(),
-                row.getPrice(),
-                row.getMotherId(),
-                row.getCreatedAt(),
-                row.getUpdatedAt()
-        ));
+        return p.map(DuckController::toResponse);
+    }
+
+    /**
+     * Keyset variant of {@link #list}: selected by the presence of {@code after} (empty for the first slice),
+     * ordered by id and read without OFFSET or a count query.
+     */
+    @GetMapping(params = "after")
+    public KeysetSlice<DuckWithPriceResponse> listAfter(
+            @RequestParam(required = false) @Nullable String name,
+            @RequestParam(required = false) @Nullable Long motherId,
+            @RequestParam String after,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        Long cursorId = KeysetCursor.decodeId(after);
+        // ids are positive, so 0 starts from the beginning without an "is null" branch in the query
+        long afterId = (cursorId != null) ? cursorId : 0L;
+        Slice<DuckRepository.DuckWithPrice> slice = StringUtils.hasText(name)
+                ? duckRepository.searchWithPriceByNameAfter(LikePattern.contains(name), motherId, afterId, PageRequest.ofSize(size))
+                : duckRepository.searchWithPriceAfter(motherId, afterId, PageRequest.ofSize(size));
+
+        return KeysetSlice.of(slice, DuckController::toResponse, row -> KeysetCursor.ofId(row.getId()));
     }
 
     @GetMapping("/sold")
@@ -124,6 +250,104 @@ public class DuckController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size
     ) {
+        SaleDateRange range = parseSaleDateRange(from, to);
+
+        Page<SaleItemRepository.SoldDuckRow> items = saleItemRepository.findSoldDucks(
+                range.start(),
+                range.endExclusive(),
+                PageRequest.of(page, size)
+        );
+
+        return items.map(DuckController::toSoldResponse);
+    }
+
+    /**
+     * Keyset variant of {@link #listSold}: the {@code after} token carries {@code (saleDate, saleItemId)}
+     * of the last row, so each slice is an index seek on {@code sale_date} rather than an OFFSET scan.
+     */
+    @GetMapping(value = "/sold", params = "after")
+    @Transactional(readOnly = true)
+    public KeysetSlice<SoldDuckResponse> listSoldAfter(
+            @RequestParam(required = false) @Nullable String from,
+            @RequestParam(required = false) @Nullable String to,
+            @RequestParam String after,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        SaleDateRange range = parseSaleDateRange(from, to);
+        KeysetCursor.InstantAndId cursor = KeysetCursor.decodeInstantAndId(after);
+
+        Slice<SaleItemRepository.SoldDuckRow> items = saleItemRepository.findSoldDucksAfter(
+                range.start(),
+                range.endExclusive(),
+                (cursor != null) ? cursor.at() : null,
+                (cursor != null) ? cursor.id() : null,
+                PageRequest.ofSize(size)
+        );
+
+        return KeysetSlice.of(items, DuckController::toSoldResponse,
+                row -> KeysetCursor.ofInstantAndId(row.getSaleDate(), row.getSaleItemId()));
+    }
+
+    /**
+     * Every sold duck in the {@link #listSold} range as NDJSON or CSV, streamed from a JDBC cursor.
+     */
+    @GetMapping("/sold/export")
+    public ResponseEntity<StreamingResponseBody> exportSold(
+            @RequestParam(required = false) @Nullable String from,
+            @RequestParam(required = false) @Nullable String to,
+            @RequestParam(defaultValue = "ndjson") String format
+    ) {
+        ExportFormat exportFormat = ExportFormat.of(format);
+        SaleDateRange range = parseSaleDateRange(from, to);
+
+        return ExportWriter.response(exportFormat, "sold_ducks", SoldDuckResponse.class, objectMapper, readOnlyTx,
+                () -> saleItemRepository.streamSoldDucks(range.start(), range.endExclusive())
+                        .map(DuckController::toSoldResponse));
+    }
+
+    private Duck resolveMother(Long motherId, Long selfId) {
+        if (motherId == null) return null;
+        if (Objects.equals(motherId, selfId)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A duck cannot be its own mother");
+        }
+        if (selfId != null && genealogyIndex.isDescendantOrSelf(motherId, selfId)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "A duck cannot be the mother of its own ancestor: id=" + motherId);
+        }
+        return duckRepository.findById(motherId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Mother duck not found: id=" + motherId));
+    }
+
+    /**
+     * Applies a committed write to the genealogy index. If the index rejects it (it lags behind a change
+     * made on another node), the ducks are re-read from the database instead of failing the request.
+     */
+    private void updateGenealogy(Runnable update, long... duckIds) {
+        try {
+            update.run();
+        } catch (IllegalArgumentException ex) {
+            genealogyIndex.refresh(duckIds);
+        }
+    }
+
+    private void requireIndexed(Long id) {
+        if (!genealogyIndex.contains(id)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Duck not found");
+        }
+    }
+
+    private GenealogyResponse toGenealogyResponse(Long id, List<GenealogyIndex.Node> nodes) {
+        return new GenealogyResponse(
+                id,
+                genealogyIndex.depth(id),
+                genealogyIndex.subtreeSize(id),
+                nodes.stream()
+                        .map(n -> new GenealogyNode(n.id(), n.motherId(), n.depth()))
+                        .toList()
+        );
+    }
+
+    private static SaleDateRange parseSaleDateRange(@Nullable String from, @Nullable String to) {
         LocalDate fromDate = null;
         LocalDate toDate = null;
 
@@ -141,46 +365,13 @@ public class DuckController {
 
         Instant start = (fromDate != null)
                 ? fromDate.atStartOfDay().toInstant(ZoneOffset.UTC)
-                : null;
+                : SaleRepository.MIN_SALE_DATE;
 
         Instant endExclusive = (toDate != null)
                 ? toDate.plusDays(1).atStartOfDay().toInstant(ZoneOffset.UTC)
-                : null;
-
-        Pageable pageable = PageRequest.of(
-                page,
-                size,
-                Sort.by(Sort.Order.desc("sale.saleDate"), Sort.Order.desc("id"))
-        );
-
-        Page<SaleItem> items;
-        if (start != null && endExclusive != null) {
-            items = saleItemRepository
-                    .findBySale_SaleDateGreaterThanEqualAndSale_SaleDateLessThan(start, endExclusive, pageable);
-        } else if (start != null) {
-            items = saleItemRepository.findBySale_SaleDateGreaterThanEqual(start, pageable);
-        } else if (endExclusive != null) {
-            items = saleItemRepository.findBySale_SaleDateLessThan(endExclusive, pageable);
-        } else {
-            items = saleItemRepository.findAll(pageable);
-        }
+                : SaleRepository.MAX_SALE_DATE;
 
-        return items.map(si -> new SoldDuckResponse(
-                si.getDuck().getId(),
-                si.getDuck().getName(),
-                si.getSale().getCustomer().getName(),
-                si.getSale().getSaleDate(),
-                si.getPriceAtSale()
-        ));
-    }
-
-    private Duck resolveMother(Long motherId, Long selfId) {
-        if (motherId == null) return null;
-        if (Objects.equals(motherId, selfId)) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A duck cannot be its own mother");
-        }
-        return duckRepository.findById(motherId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Mother duck not found: id=" + motherId));
+        return new SaleDateRange(start, endExclusive);
     }
 
     private static void parseDateOrBadRequest(String s) {
@@ -191,6 +382,27 @@ public class DuckController {
         }
     }
 
+    private static DuckWithPriceResponse toResponse(DuckRepository.DuckWithPrice row) {
+        return new DuckWithPriceResponse(
+                row.getId(),
+                row.getName(),
+                row.getPrice(),
+                row.getMotherId(),
+                row.getCreatedAt(),
+                row.getUpdatedAt()
+        );
+    }
+
+    private static SoldDuckResponse toSoldResponse(SaleItemRepository.SoldDuckRow row) {
+        return new SoldDuckResponse(
+                row.getDuckId(),
+                row.getDuckName(),
+                row.getCustomerName(),
+                row.getSaleDate(),
+                row.getPriceAtSale()
+        );
+    }
+
     private static DuckWithPriceResponse toResponse(Duck d) {
         Long motherId = (d.getMother() != null) ? d.getMother().getId() : null;
         return new DuckWithPriceResponse(
@@ -203,6 +415,9 @@ public class DuckController {
         );
     }
 
+    private record SaleDateRange(Instant start, Instant endExclusive) {
+    }
+
     public record DuckUpsertRequest(
             @NotBlank String name,
             Long motherId
@@ -215,6 +430,20 @@ public class DuckController {
     ) {
     }
 
+    public record DuckBulkImportResponse(
+            int imported,
+            List<DuckBulkImportItem> ducks
+    ) {
+    }
+
+    public record DuckBulkImportItem(
+            long line,
+            String key,
+            Long id,
+            Long motherId
+    ) {
+    }
+
     public record DuckWithPriceResponse(
             Long id,
             String name,
@@ -225,6 +454,21 @@ public class DuckController {
     ) {
     }
 
+    public record GenealogyResponse(
+            Long id,
+            int depth,
+            int subtreeSize,
+            List<GenealogyNode> ducks
+    ) {
+    }
+
+    public record GenealogyNode(
+            Long id,
+            Long motherId,
+            int generation
+    ) {
+    }
+
     public record SoldDuckResponse(
             Long duckId,
             String duckName,
@@ -2,6 +2,7 @@ package com.pjusto.ducks.duck;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
 
 import org.springframework.data.repository.query.Param;
@@ -15,7 +16,7 @@ public interface DuckRepository extends JpaRepository<Duck, Long>, JpaSpecificat
         select d.id as id,
                d.name as name,
                d.mother.id as motherId,
-               (select count(c) from Duck c where c.mother.id = d.id) as childCount,
+               d.childCount as childCount,
                d.createdAt as createdAt,
                d.updatedAt as updatedAt
         from Duck d
@@ -32,7 +33,7 @@ public interface DuckRepository extends JpaRepository<Duck, Long>, JpaSpecificat
         select d.id as id,
                d.name as name,
                d.mother.id as motherId,
-               (select count(c) from Duck c where c.mother.id = d.id) as childCount,
+               d.childCount as childCount,
                d.createdAt as createdAt,
                d.updatedAt as updatedAt
         from Duck d
@@ -45,22 +46,73 @@ public interface DuckRepository extends JpaRepository<Duck, Long>, JpaSpecificat
   select d.id as id,
          d.name as name,
          d.mother.id as motherId,
-         (select count(c) from Duck c where c.mother.id = d.id) as childCount,
-         case
-           when (select count(c1) from Duck c1 where c1.mother.id = d.id) = 0 then 70.00
-           when (select count(c2) from Duck c2 where c2.mother.id = d.id) = 1 then 50.00
-           else 25.00
-         end as price,
+         d.childCount as childCount,
+         d.price as price,
          d.createdAt as createdAt,
          d.updatedAt as updatedAt
   from Duck d
-  where (:name is null or lower(d.name) like :name)
-    and (:motherId is null or d.mother.id = :motherId)
+  where (:motherId is null or d.mother.id = :motherId)
   """)
-    Page<DuckWithPrice> searchWithPrice(@Param("name") String name,
-                                        @Param("motherId") Long motherId,
+    Page<DuckWithPrice> searchWithPrice(@Param("motherId") Long motherId,
                                         Pageable pageable);
 
+    /**
+     * {@link #searchWithPrice} filtered by a {@link com.pjusto.ducks.search.LikePattern} on the name. Kept
+     * as a separate query rather than {@code (:name is null or ...)} so the predicate is always present
+     * and a cached generic plan can still use {@code idx_duck_name_trgm}.
+     */
+    @Query("""
+  select d.id as id,
+         d.name as name,
+         d.mother.id as motherId,
+         d.childCount as childCount,
+         d.price as price,
+         d.createdAt as createdAt,
+         d.updatedAt as updatedAt
+  from Duck d
+  where lower(d.name) like :pattern escape '!'
+    and (:motherId is null or d.mother.id = :motherId)
+  """)
+    Page<DuckWithPrice> searchWithPriceByName(@Param("pattern") String pattern,
+                                              @Param("motherId") Long motherId,
+                                              Pageable pageable);
+
+    @Query("""
+  select d.id as id,
+         d.name as name,
+         d.mother.id as motherId,
+         d.childCount as childCount,
+         d.price as price,
+         d.createdAt as createdAt,
+         d.updatedAt as updatedAt
+  from Duck d
+  where (:motherId is null or d.mother.id = :motherId)
+    and d.id > :afterId
+  order by d.id
+  """)
+    Slice<DuckWithPrice> searchWithPriceAfter(@Param("motherId") Long motherId,
+                                              @Param("afterId") long afterId,
+                                              Pageable pageable);
+
+    @Query("""
+  select d.id as id,
+         d.name as name,
+         d.mother.id as motherId,
+         d.childCount as childCount,
+         d.price as price,
+         d.createdAt as createdAt,
+         d.updatedAt as updatedAt
+  from Duck d
+  where lower(d.name) like :pattern escape '!'
+    and (:motherId is null or d.mother.id = :motherId)
+    and d.id > :afterId
+  order by d.id
+  """)
+    Slice<DuckWithPrice> searchWithPriceByNameAfter(@Param("pattern") String pattern,
+                                                    @Param("motherId") Long motherId,
+                                                    @Param("afterId") long afterId,
+                                                    Pageable pageable);
+
     interface DuckWithChildCount {
         Long getId();
         String getName();
@@ -0,0 +1,668 @@
+package com.pjusto.ducks.duck;
+
+import com.pjusto.ducks.cache.EntityInvalidatedEvent;
+import com.pjusto.ducks.cache.EntityType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory mother/child forest over every duck, kept in parallel primitive arrays.
+ * <p>
+ * Each duck occupies a slot; {@code mother}, {@code firstChild}, {@code nextSibling} and
+ * {@code prevSibling} hold slot numbers, so the tree is walked without touching the database
+ * or allocating per-node objects. {@code subtreeSize} is maintained incrementally along the
+ * ancestor chain on every link/unlink, which keeps writes at O(depth) and subtree-size reads at O(1).
+ * <p>
+ * The index is loaded once at startup and then updated by {@link DuckController} after each
+ * committed write, and from {@link EntityInvalidatedEvent}s for writes made on other nodes.
+ * Deleting a duck turns its children into roots, mirroring {@code ON DELETE SET NULL}.
+ */
+@Component
+public class GenealogyIndex implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(GenealogyIndex.class);
+
+    private static final int NONE = -1;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int RELOAD_ATTEMPTS = 3;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTx;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Lock reloadLock = new ReentrantLock();
+    /** Puts and removes made while a reload scans, in order; {@code null} when no reload runs. Guarded by {@link #lock}. */
+    private List<Write> writesDuringReload;
+
+    private final LongIntMap slotById = new LongIntMap(INITIAL_CAPACITY);
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private int[] mother = new int[INITIAL_CAPACITY];
+    private int[] firstChild = new int[INITIAL_CAPACITY];
+    private int[] nextSibling = new int[INITIAL_CAPACITY];
+    private int[] prevSibling = new int[INITIAL_CAPACITY];
+    private int[] subtreeSize = new int[INITIAL_CAPACITY];
+    private int highWater;
+    private int freeHead = NONE;
+
+    public GenealogyIndex(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        reload();
+    }
+
+    /**
+     * Rebuilds the whole index from the {@code duck} table. The scan runs without the lock; puts and removes
+     * applied meanwhile are recorded and replayed onto the rebuilt forest, so a duck written after the scan
+     * read it is not lost. If a replayed move no longer fits the scanned forest (writes seen out of order),
+     * the scan is repeated. Reloads run one at a time.
+     */
+    public void reload() {
+        reloadLock.lock();
+        try {
+            for (int attempt = 1; ; attempt++) {
+                lock.writeLock().lock();
+                try {
+                    writesDuringReload = new ArrayList<>();
+                } finally {
+                    lock.writeLock().unlock();
+                }
+
+                LongArray duckIds = new LongArray();
+                LongArray motherIds = new LongArray();
+                boolean scanned = false;
+                boolean replayed = false;
+                try {
+                    // inside a transaction so the driver honours the fetch size and streams the scan
+                    readOnlyTx.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+                        var ps = con.prepareStatement("SELECT id, mother_id FROM duck");
+                        ps.setFetchSize(10_000);
+                        return ps;
+                    }, rs -> {
+                        duckIds.add(rs.getLong(1));
+                        long m = rs.getLong(2);
+                        motherIds.add(rs.wasNull() ? 0L : m);
+                    }));
+                    scanned = true;
+                } finally {
+                    lock.writeLock().lock();
+                    try {
+                        List<Write> writes = writesDuringReload;
+                        writesDuringReload = null;
+                        if (scanned) {
+                            build(duckIds.values, motherIds.values, duckIds.size);
+                            replayed = replay(writes);
+                        }
+                    } finally {
+                        lock.writeLock().unlock();
+                    }
+                }
+                if (replayed || attempt == RELOAD_ATTEMPTS) {
+                    if (!replayed) {
+                        log.warn("Writes made during the genealogy reload kept conflicting with the scan; "
+                                + "some of them may be missing until the next reload");
+                    }
+                    log.info("Genealogy index loaded with {} ducks", duckIds.size);
+                    return;
+                }
+                log.warn("Writes made during the genealogy reload conflict with the scan, scanning again");
+            }
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    /**
+     * Re-applies writes recorded during a reload, in order; caller holds the write lock.
+     *
+     * @return false if a move would form a mother cycle in the rebuilt forest
+     */
+    private boolean replay(List<Write> writes) {
+        for (Write write : writes) {
+            if (write.removed()) {
+                remove(write.id());
+                continue;
+            }
+            try {
+                put(write.id(), write.motherId());
+            } catch (IllegalArgumentException ex) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Re-reads the given ducks from the database: missing ones are removed, the others are inserted
+     * or moved under their current mother. Falls back to a full {@link #reload()} if the ids are empty
+     * or the partial update would not form a forest (changes seen out of order).
+     */
+    public void refresh(long[] duckIds) {
+        if (duckIds.length == 0) {
+            reload();
+            return;
+        }
+        Long[] boxed = Arrays.stream(duckIds).boxed().toArray(Long[]::new);
+        Map<Long, Long> motherById = new HashMap<>();
+        jdbcTemplate.query(con -> {
+            var ps = con.prepareStatement("SELECT id, mother_id FROM duck WHERE id = ANY(?)");
+            ps.setArray(1, con.createArrayOf("bigint", boxed));
+            return ps;
+        }, rs -> {
+            long m = rs.getLong(2);
+            motherById.put(rs.getLong(1), rs.wasNull() ? null : m);
+        });
+
+        lock.writeLock().lock();
+        try {
+            for (long id : duckIds) {
+                if (!motherById.containsKey(id)) {
+                    remove(id);
+                } else if (!contains(id)) {
+                    put(id, null);
+                }
+            }
+            motherById.forEach(this::put);
+            return;
+        } catch (IllegalArgumentException ex) {
+            log.warn("Genealogy refresh of {} ducks conflicts with the index, reloading", duckIds.length);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        reload();
+    }
+
+    /**
+     * Applies duck changes made by other nodes; this node's own writes are applied by {@link DuckController}.
+     */
+    @EventListener
+    public void onInvalidated(EntityInvalidatedEvent event) {
+        if (event.type() == EntityType.DUCK && event.remote()) {
+            refresh(event.ids());
+        }
+    }
+
+    /**
+     * Inserts a duck or moves it under a new mother. A {@code null} or unknown mother makes it a root.
+     *
+     * @throws IllegalArgumentException if the new mother is the duck itself or one of its descendants
+     */
+    public void put(long id, Long motherId) {
+        lock.writeLock().lock();
+        try {
+            int slot = slotById.get(id);
+            if (slot == NONE) {
+                slot = allocate(id);
+            }
+            int newMother = (motherId == null) ? NONE : slotById.get(motherId);
+            if (newMother != NONE && isInSubtree(newMother, slot)) {
+                throw new IllegalArgumentException("Duck " + motherId + " descends from duck " + id);
+            }
+            if (writesDuringReload != null) {
+                writesDuringReload.add(new Write(id, motherId, false));
+            }
+            if (mother[slot] == newMother) {
+                return;
+            }
+            unlink(slot);
+            link(slot, newMother);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a duck; its children become roots.
+     */
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            if (writesDuringReload != null) {
+                writesDuringReload.add(new Write(id, null, true));
+            }
+            int slot = slotById.get(id);
+            if (slot == NONE) {
+                return;
+            }
+            unlink(slot);
+            int child = firstChild[slot];
+            while (child != NONE) {
+                int next = nextSibling[child];
+                mother[child] = NONE;
+                nextSibling[child] = NONE;
+                prevSibling[child] = NONE;
+                child = next;
+            }
+            slotById.remove(id);
+            ids[slot] = 0L;
+            firstChild[slot] = NONE;
+            subtreeSize[slot] = 0;
+            nextSibling[slot] = freeHead;
+            freeHead = slot;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean contains(long id) {
+        lock.readLock().lock();
+        try {
+            return slotById.get(id) != NONE;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return true if {@code candidateId} is {@code ancestorId} itself or one of its descendants
+     */
+    public boolean isDescendantOrSelf(long candidateId, long ancestorId) {
+        lock.readLock().lock();
+        try {
+            int candidate = slotById.get(candidateId);
+            int ancestor = slotById.get(ancestorId);
+            return candidate != NONE && ancestor != NONE && isInSubtree(candidate, ancestor);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return number of ducks in the subtree rooted at {@code id}, including itself; 0 if unknown
+     */
+    public int subtreeSize(long id) {
+        lock.readLock().lock();
+        try {
+            int slot = slotById.get(id);
+            return (slot == NONE) ? 0 : subtreeSize[slot];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return distance from {@code id} to its root (0 for a root); -1 if unknown
+     */
+    public int depth(long id) {
+        lock.readLock().lock();
+        try {
+            int slot = slotById.get(id);
+            if (slot == NONE) {
+                return -1;
+            }
+            int depth = 0;
+            for (int m = mother[slot]; m != NONE; m = mother[m]) {
+                depth++;
+            }
+            return depth;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Walks up the mother chain, nearest first, stopping after {@code maxDepth} generations.
+     */
+    public List<Node> ancestors(long id, int maxDepth) {
+        lock.readLock().lock();
+        try {
+            int slot = slotById.get(id);
+            if (slot == NONE) {
+                return List.of();
+            }
+            List<Node> out = new ArrayList<>();
+            int depth = 1;
+            for (int m = mother[slot]; m != NONE && depth <= maxDepth; m = mother[m], depth++) {
+                out.add(new Node(ids[m], motherIdOf(m), depth));
+            }
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Breadth-first walk below {@code id}, down to {@code maxDepth} generations and at most {@code limit} ducks.
+     */
+    public List<Node> descendants(long id, int maxDepth, int limit) {
+        lock.readLock().lock();
+        try {
+            int slot = slotById.get(id);
+            if (slot == NONE) {
+                return List.of();
+            }
+            int capacity = Math.min(limit, subtreeSize[slot] - 1);
+            List<Node> out = new ArrayList<>(Math.max(capacity, 0));
+            int[] level = {slot};
+            int levelSize = 1;
+            for (int depth = 1; depth <= maxDepth && levelSize > 0 && out.size() < limit; depth++) {
+                int[] next = new int[16];
+                int nextSize = 0;
+                for (int i = 0; i < levelSize && out.size() < limit; i++) {
+                    for (int c = firstChild[level[i]]; c != NONE && out.size() < limit; c = nextSibling[c]) {
+                        out.add(new Node(ids[c], ids[level[i]], depth));
+                        if (nextSize == next.length) {
+                            next = Arrays.copyOf(next, nextSize * 2);
+                        }
+                        next[nextSize++] = c;
+                    }
+                }
+                level = next;
+                levelSize = nextSize;
+            }
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Long motherIdOf(int slot) {
+        return (mother[slot] == NONE) ? null : ids[mother[slot]];
+    }
+
+    private boolean isInSubtree(int candidate, int root) {
+        for (int s = candidate; s != NONE; s = mother[s]) {
+            if (s == root) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void link(int slot, int newMother) {
+        mother[slot] = newMother;
+        if (newMother == NONE) {
+            return;
+        }
+        int head = firstChild[newMother];
+        nextSibling[slot] = head;
+        prevSibling[slot] = NONE;
+        if (head != NONE) {
+            prevSibling[head] = slot;
+        }
+        firstChild[newMother] = slot;
+        for (int m = newMother; m != NONE; m = mother[m]) {
+            subtreeSize[m] += subtreeSize[slot];
+        }
+    }
+
+    private void unlink(int slot) {
+        int oldMother = mother[slot];
+        if (oldMother == NONE) {
+            return;
+        }
+        int prev = prevSibling[slot];
+        int next = nextSibling[slot];
+        if (prev != NONE) {
+            nextSibling[prev] = next;
+        } else {
+            firstChild[oldMother] = next;
+        }
+        if (next != NONE) {
+            prevSibling[next] = prev;
+        }
+        for (int m = oldMother; m != NONE; m = mother[m]) {
+            subtreeSize[m] -= subtreeSize[slot];
+        }
+        mother[slot] = NONE;
+        nextSibling[slot] = NONE;
+        prevSibling[slot] = NONE;
+    }
+
+    private int allocate(long id) {
+        int slot;
+        if (freeHead != NONE) {
+            slot = freeHead;
+            freeHead = nextSibling[slot];
+        } else {
+            if (highWater == ids.length) {
+                grow(ids.length * 2);
+            }
+            slot = highWater++;
+        }
+        ids[slot] = id;
+        mother[slot] = NONE;
+        firstChild[slot] = NONE;
+        nextSibling[slot] = NONE;
+        prevSibling[slot] = NONE;
+        subtreeSize[slot] = 1;
+        slotById.put(id, slot);
+        return slot;
+    }
+
+    private void grow(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        mother = Arrays.copyOf(mother, capacity);
+        firstChild = Arrays.copyOf(firstChild, capacity);
+        nextSibling = Arrays.copyOf(nextSibling, capacity);
+        prevSibling = Arrays.copyOf(prevSibling, capacity);
+        subtreeSize = Arrays.copyOf(subtreeSize, capacity);
+    }
+
+    /**
+     * Bulk build: allocate every slot, link children, then compute subtree sizes bottom-up in
+     * reverse BFS order so a deep chain costs O(n) instead of O(n * depth).
+     * Ducks caught in a mother cycle are unreachable from any root and are detached into roots.
+     */
+    void build(long[] duckIds, long[] motherIds, int count) {
+        slotById.clear(Math.max(INITIAL_CAPACITY, count));
+        int capacity = Math.max(INITIAL_CAPACITY, Integer.highestOneBit(Math.max(count, 1)) << 1);
+        ids = new long[capacity];
+        mother = new int[capacity];
+        firstChild = new int[capacity];
+        nextSibling = new int[capacity];
+        prevSibling = new int[capacity];
+        subtreeSize = new int[capacity];
+        highWater = 0;
+        freeHead = NONE;
+
+        for (int i = 0; i < count; i++) {
+            allocate(duckIds[i]);
+        }
+        for (int i = 0; i < count; i++) {
+            if (motherIds[i] == 0L) {
+                continue;
+            }
+            int slot = slotById.get(duckIds[i]);
+            int m = slotById.get(motherIds[i]);
+            if (m == NONE) {
+                continue;
+            }
+            mother[slot] = m;
+            int head = firstChild[m];
+            nextSibling[slot] = head;
+            if (head != NONE) {
+                prevSibling[head] = slot;
+            }
+            firstChild[m] = slot;
+        }
+
+        int[] order = new int[highWater];
+        int orderSize = 0;
+        for (int s = 0; s < highWater; s++) {
+            if (mother[s] == NONE) {
+                order[orderSize++] = s;
+            }
+        }
+        for (int head = 0; head < orderSize; head++) {
+            for (int c = firstChild[order[head]]; c != NONE; c = nextSibling[c]) {
+                order[orderSize++] = c;
+            }
+        }
+        if (orderSize < highWater) {
+            boolean[] reached = new boolean[highWater];
+            for (int i = 0; i < orderSize; i++) {
+                reached[order[i]] = true;
+            }
+            for (int s = 0; s < highWater; s++) {
+                if (!reached[s]) {
+                    log.warn("Duck {} is part of a mother cycle; treating it as a root in the genealogy index", ids[s]);
+                    detachDuringBuild(s);
+                    order[orderSize++] = s;
+                    reached[s] = true;
+                    for (int head = orderSize - 1; head < orderSize; head++) {
+                        for (int c = firstChild[order[head]]; c != NONE; c = nextSibling[c]) {
+                            if (!reached[c]) {
+                                reached[c] = true;
+                                order[orderSize++] = c;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        for (int i = orderSize - 1; i >= 0; i--) {
+            int s = order[i];
+            if (mother[s] != NONE) {
+                subtreeSize[mother[s]] += subtreeSize[s];
+            }
+        }
+    }
+
+    private void detachDuringBuild(int slot) {
+        int m = mother[slot];
+        int prev = prevSibling[slot];
+        int next = nextSibling[slot];
+        if (prev != NONE) {
+            nextSibling[prev] = next;
+        } else {
+            firstChild[m] = next;
+        }
+        if (next != NONE) {
+            prevSibling[next] = prev;
+        }
+        mother[slot] = NONE;
+        nextSibling[slot] = NONE;
+        prevSibling[slot] = NONE;
+    }
+
+    /**
+     * A duck reached from the queried one. {@code depth} counts generations away from it (1 = mother or child).
+     */
+    public record Node(long id, Long motherId, int depth) {
+    }
+
+    private record Write(long id, Long motherId, boolean removed) {
+    }
+
+    private static final class LongArray {
+        long[] values = new long[INITIAL_CAPACITY];
+        int size;
+
+        void add(long v) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = v;
+        }
+    }
+
+    /**
+     * Open-addressing long → int map with linear probing. Duck ids are never 0, so 0 marks an empty bucket.
+     */
+    private static final class LongIntMap {
+        private long[] keys;
+        private int[] values;
+        private int size;
+        private int mask;
+
+        LongIntMap(int expected) {
+            clear(expected);
+        }
+
+        void clear(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(expected, 8) * 2 - 1) << 1;
+            keys = new long[capacity];
+            values = new int[capacity];
+            mask = capacity - 1;
+            size = 0;
+        }
+
+        int get(long key) {
+            for (int i = bucket(key); ; i = (i + 1) & mask) {
+                long k = keys[i];
+                if (k == key) {
+                    return values[i];
+                }
+                if (k == 0L) {
+                    return NONE;
+                }
+            }
+        }
+
+        void put(long key, int value) {
+            if ((size + 1) * 2 > keys.length) {
+                rehash(keys.length * 2);
+            }
+            int i = bucket(key);
+            while (keys[i] != 0L && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            if (keys[i] == 0L) {
+                size++;
+            }
+            keys[i] = key;
+            values[i] = value;
+        }
+
+        void remove(long key) {
+            int i = bucket(key);
+            while (keys[i] != key) {
+                if (keys[i] == 0L) {
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+            size--;
+            // backward-shift deletion keeps probe chains intact without tombstones
+            int gap = i;
+            for (int j = (gap + 1) & mask; keys[j] != 0L; j = (j + 1) & mask) {
+                int home = bucket(keys[j]);
+                if (((j - home) & mask) >= ((j - gap) & mask)) {
+                    keys[gap] = keys[j];
+                    values[gap] = values[j];
+                    gap = j;
+                }
+            }
+            keys[gap] = 0L;
+        }
+
+        private void rehash(int capacity) {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new long[capacity];
+            values = new int[capacity];
+            mask = capacity - 1;
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0L) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private int bucket(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+    }
+}
@@ -1,6 +1,11 @@
 package com.pjusto.ducks.employee;
 
+import com.pjusto.ducks.cache.EntityCacheEvictor;
+import com.pjusto.ducks.cache.EntityType;
+import com.pjusto.ducks.cache.InvalidationBus;
 import com.pjusto.ducks.sale.SaleRepository;
+import com.pjusto.ducks.search.LikePattern;
+import com.pjusto.ducks.search.SearchIndex;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import org.springframework.dao.DataIntegrityViolationException;
@@ -22,13 +27,22 @@ public class EmployeeController {
 
     private final EmployeeRepository employeeRepository;
     private final SaleRepository saleRepository;
+    private final EntityCacheEvictor cacheEvictor;
+    private final InvalidationBus invalidationBus;
+    private final SearchIndex searchIndex;
 
     public EmployeeController(
             EmployeeRepository employeeRepository,
-            SaleRepository saleRepository
+            SaleRepository saleRepository,
+            EntityCacheEvictor cacheEvictor,
+            InvalidationBus invalidationBus,
+            SearchIndex searchIndex
     ) {
         this.employeeRepository = employeeRepository;
         this.saleRepository = saleRepository;
+        this.cacheEvictor = cacheEvictor;
+        this.invalidationBus = invalidationBus;
+        this.searchIndex = searchIndex;
     }
 
     @PostMapping
@@ -39,6 +53,8 @@ public class EmployeeController {
         employee.setEmployee_code(req.employeeCode());
 
         Employee saved = employeeRepository.save(employee);
+        searchIndex.put(EntityType.EMPLOYEE, saved.getId(), saved.getName(), saved.getCpf(), saved.getEmployee_code());
+        invalidationBus.publish(EntityType.EMPLOYEE, saved.getId());
 
         URI location = ServletUriComponentsBuilder
                 .fromCurrentRequest()
@@ -66,6 +82,9 @@ public class EmployeeController {
         employee.setEmployee_code(req.employeeCode());
 
         Employee saved = employeeRepository.save(employee);
+        cacheEvictor.evict(Employee.class, id);
+        searchIndex.put(EntityType.EMPLOYEE, id, saved.getName(), saved.getCpf(), saved.getEmployee_code());
+        invalidationBus.publish(EntityType.EMPLOYEE, id);
         return toResponse(saved);
     }
 
@@ -85,6 +104,9 @@ public class EmployeeController {
         }
 
         Employee saved = employeeRepository.save(employee);
+        cacheEvictor.evict(Employee.class, id);
+        searchIndex.put(EntityType.EMPLOYEE, id, saved.getName(), saved.getCpf(), saved.getEmployee_code());
+        invalidationBus.publish(EntityType.EMPLOYEE, id);
         return toResponse(saved);
     }
 
@@ -111,6 +133,9 @@ public class EmployeeController {
                     ex
             );
         }
+        cacheEvictor.evict(Employee.class, id);
+        searchIndex.remove(EntityType.EMPLOYEE, id);
+        invalidationBus.publish(EntityType.EMPLOYEE, id);
     }
 
     @GetMapping
@@ -121,10 +146,16 @@ public class EmployeeController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size
     ) {
-        Employee probe = new Employee();
         if (StringUtils.hasText(name)) {
-            probe.setName(name);
+            return employeeRepository.searchByName(
+                    LikePattern.contains(name),
+                    StringUtils.hasText(cpf) ? cpf : null,
+                    StringUtils.hasText(employeeCode) ? employeeCode : null,
+                    PageRequest.of(page, size)
+            ).map(EmployeeController::toResponse);
         }
+
+        Employee probe = new Employee();
         if (StringUtils.hasText(cpf)) {
             probe.setCpf(cpf);
         }
@@ -135,7 +166,6 @@ public class EmployeeController {
         ExampleMatcher matcher = ExampleMatcher.matching()
                 .withIgnoreNullValues()
                 .withIgnorePaths("id", "createdAt", "updatedAt")
-                .withMatcher("name", m -> m.contains().ignoreCase())
                 .withMatcher("cpf", ExampleMatcher.GenericPropertyMatcher::exact)
                 .withMatcher("employee_code", ExampleMatcher.GenericPropertyMatcher::exact);
 
@@ -1,7 +1,27 @@
 package com.pjusto.ducks.employee;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface EmployeeRepository extends JpaRepository<Employee, Long> {
 
+    /**
+     * Name filter for {@code GET /employees}; {@code pattern} comes from
+     * {@link com.pjusto.ducks.search.LikePattern} and is served by {@code idx_employee_name_trgm}.
+     */
+    @Query("""
+        select e from Employee e
+        where lower(e.name) like :pattern escape '!'
+          and (:cpf is null or e.cpf = :cpf)
+          and (:employeeCode is null or e.employee_code = :employeeCode)
+        """)
+    Page<Employee> searchByName(
+            @Param("pattern") String pattern,
+            @Param("cpf") String cpf,
+            @Param("employeeCode") String employeeCode,
+            Pageable pageable
+    );
 }
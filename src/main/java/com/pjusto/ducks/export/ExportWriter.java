@@ -0,0 +1,110 @@
+package com.pjusto.ducks.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.*;
+import java.lang.reflect.RecordComponent;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Writes records one per line as NDJSON, or as CSV with a header taken from the record components.
+ * Nothing is buffered beyond the writer's own buffer, so memory does not grow with the number of rows.
+ */
+public final class ExportWriter<T extends Record> implements Closeable {
+
+    private final ExportFormat format;
+    private final Writer out;
+    private final ObjectWriter json;
+    private final RecordComponent[] components;
+
+    public ExportWriter(ExportFormat format, OutputStream out, ObjectMapper objectMapper, Class<T> type) throws IOException {
+        this.format = format;
+        this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 16 * 1024);
+        this.json = objectMapper.writerFor(type);
+        this.components = type.getRecordComponents();
+
+        if (format == ExportFormat.CSV) {
+            for (int i = 0; i < components.length; i++) {
+                if (i > 0) this.out.write(',');
+                this.out.write(components[i].getName());
+            }
+            this.out.write('\n');
+        }
+    }
+
+    public void write(T row) {
+        try {
+            if (format == ExportFormat.NDJSON) {
+                out.write(json.writeValueAsString(row));
+            } else {
+                for (int i = 0; i < components.length; i++) {
+                    if (i > 0) out.write(',');
+                    writeCsvValue(components[i].getAccessor().invoke(row));
+                }
+            }
+            out.write('\n');
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private void writeCsvValue(Object value) throws IOException {
+        if (value == null) return;
+        String s = (value instanceof BigDecimal d) ? d.toPlainString() : value.toString();
+        if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0 && s.indexOf('\r') < 0) {
+            out.write(s);
+            return;
+        }
+        out.write('"');
+        out.write(s.replace("\"", "\"\""));
+        out.write('"');
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Response that opens {@code rows} inside a read-only transaction when the body is written and copies
+     * every row to the client as it comes off the cursor. The transaction, and its connection, stay open
+     * until the last row is written.
+     */
+    public static <T extends Record> ResponseEntity<StreamingResponseBody> response(
+            ExportFormat format,
+            String baseName,
+            Class<T> type,
+            ObjectMapper objectMapper,
+            TransactionTemplate readOnlyTx,
+            Supplier<Stream<T>> rows
+    ) {
+        StreamingResponseBody body = out -> {
+            try (ExportWriter<T> writer = new ExportWriter<>(format, out, objectMapper, type)) {
+                readOnlyTx.executeWithoutResult(status -> {
+                    try (Stream<T> stream = rows.get()) {
+                        stream.forEach(writer::write);
+                    }
+                });
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(format.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(baseName + "." + format.extension())
+                        .build()
+                        .toString())
+                .body(body);
+    }
+}
@@ -0,0 +1,106 @@
+package com.pjusto.ducks.metrics;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Wraps connections so every statement execution is timed and reported to the current
+ * {@link RequestSqlStats}. Outside a request the proxies only pass calls through.
+ * {@code unwrap} still reaches the driver's connection, e.g. for {@code PGConnection}.
+ */
+class InstrumentedDataSource extends DelegatingDataSource {
+
+    InstrumentedDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private static Connection wrap(Connection target) {
+        return (Connection) Proxy.newProxyInstance(
+                InstrumentedDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new ConnectionHandler(target)
+        );
+    }
+
+    private record ConnectionHandler(Connection target) implements InvocationHandler {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = invokeTarget(target, method, args);
+            return switch (method.getName()) {
+                case "createStatement" -> statement(Statement.class, (Statement) result, null);
+                case "prepareStatement" -> statement(PreparedStatement.class, (Statement) result, (String) args[0]);
+                case "prepareCall" -> statement(CallableStatement.class, (Statement) result, (String) args[0]);
+                default -> result;
+            };
+        }
+    }
+
+    private static Object statement(Class<? extends Statement> type, Statement target, String sql) {
+        return Proxy.newProxyInstance(
+                InstrumentedDataSource.class.getClassLoader(),
+                new Class<?>[]{type},
+                new StatementHandler(target, sql)
+        );
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String preparedSql;
+        private String lastBatchSql;
+
+        StatementHandler(Statement target, String preparedSql) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("addBatch") && args != null && args.length == 1) {
+                lastBatchSql = (String) args[0];
+            }
+            RequestSqlStats stats = RequestSqlStats.current();
+            if (stats == null || !name.startsWith("execute")) {
+                return invokeTarget(target, method, args);
+            }
+
+            String sql = (args != null && args.length > 0 && args[0] instanceof String s) ? s
+                    : (preparedSql != null) ? preparedSql
+                    : lastBatchSql;
+            long start = System.nanoTime();
+            try {
+                return invokeTarget(target, method, args);
+            } finally {
+                stats.record(sql, System.nanoTime() - start);
+            }
+        }
+    }
+
+    private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+}
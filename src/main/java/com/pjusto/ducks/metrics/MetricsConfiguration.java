@@ -0,0 +1,48 @@
+package com.pjusto.ducks.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+
+/**
+ * Per-request SQL metrics. Endpoint latency histograms come from Boot's {@code http.server.requests}
+ * and connection acquire times from {@code hikaricp.connections.acquire}; see application.properties.
+ */
+@Configuration(proxyBeanMethods = false)
+public class MetricsConfiguration implements WebMvcConfigurer {
+
+    private final MeterRegistry registry;
+    private final int nPlusOneThreshold;
+
+    public MetricsConfiguration(
+            MeterRegistry registry,
+            @Value("${ducks.metrics.n-plus-one-threshold:10}") int nPlusOneThreshold
+    ) {
+        this.registry = registry;
+        this.nPlusOneThreshold = nPlusOneThreshold;
+    }
+
+    @Bean
+    static BeanPostProcessor instrumentedDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource ds && !(bean instanceof InstrumentedDataSource)) {
+                    return new InstrumentedDataSource(ds);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry interceptors) {
+        interceptors.addInterceptor(new SqlMetricsInterceptor(registry, nPlusOneThreshold));
+    }
+}
@@ -0,0 +1,49 @@
+package com.pjusto.ducks.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * JDBC work done by one HTTP request, collected by {@link InstrumentedDataSource} on the request thread.
+ * Statements run on other threads (async bodies, background jobs) are not attributed to any request.
+ */
+final class RequestSqlStats {
+
+    private static final ThreadLocal<RequestSqlStats> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private long nanos;
+    private final Map<String, Integer> countByShape = new HashMap<>();
+
+    static RequestSqlStats current() {
+        return CURRENT.get();
+    }
+
+    static void bind(RequestSqlStats stats) {
+        CURRENT.set(stats);
+    }
+
+    static void unbind() {
+        CURRENT.remove();
+    }
+
+    void record(String sql, long elapsedNanos) {
+        statements++;
+        nanos += elapsedNanos;
+        if (sql != null) {
+            countByShape.merge(SqlShape.of(sql), 1, Integer::sum);
+        }
+    }
+
+    int statements() {
+        return statements;
+    }
+
+    long nanos() {
+        return nanos;
+    }
+
+    Map<String, Integer> countByShape() {
+        return countByShape;
+    }
+}
@@ -0,0 +1,90 @@
+package com.pjusto.ducks.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records how many statements each request ran and how long they took, per endpoint, and flags
+ * N+1 patterns: the same statement shape run more than {@code threshold} times in one request.
+ */
+class SqlMetricsInterceptor implements AsyncHandlerInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlMetricsInterceptor.class);
+
+    private static final String STATS_ATTRIBUTE = SqlMetricsInterceptor.class.getName() + ".stats";
+
+    private final MeterRegistry registry;
+    private final int threshold;
+
+    SqlMetricsInterceptor(MeterRegistry registry, int threshold) {
+        this.registry = registry;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod)) return true;
+
+        // an async dispatch continues the stats of the request that started it
+        RequestSqlStats stats = (RequestSqlStats) request.getAttribute(STATS_ATTRIBUTE);
+        if (stats == null) {
+            stats = new RequestSqlStats();
+            request.setAttribute(STATS_ATTRIBUTE, stats);
+        }
+        RequestSqlStats.bind(stats);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RequestSqlStats.unbind();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        RequestSqlStats.unbind();
+        RequestSqlStats stats = (RequestSqlStats) request.getAttribute(STATS_ATTRIBUTE);
+        if (stats == null) return;
+        request.removeAttribute(STATS_ATTRIBUTE);
+
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        String method = request.getMethod();
+
+        DistributionSummary.builder("ducks.http.sql.statements")
+                .description("JDBC statements executed per request")
+                .tags("uri", uri, "method", method)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(stats.statements());
+        Timer.builder("ducks.http.sql.time")
+                .description("Time spent executing JDBC statements per request")
+                .tags("uri", uri, "method", method)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(stats.nanos(), TimeUnit.NANOSECONDS);
+
+        for (Map.Entry<String, Integer> e : stats.countByShape().entrySet()) {
+            if (e.getValue() > threshold) {
+                Counter.builder("ducks.sql.repeated")
+                        .description("Requests that ran one statement shape more times than the N+1 threshold")
+                        .tags("uri", uri, "method", method)
+                        .register(registry)
+                        .increment();
+                log.warn("Possible N+1 on {} {}: {} executions of [{}]", method, uri, e.getValue(), e.getKey());
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.pjusto.ducks.metrics;
+
+/**
+ * Reduces a SQL string to its shape: literals and numbers become {@code ?}, {@code IN} lists and
+ * multi-row {@code VALUES} collapse, and whitespace is squeezed, so statements that differ only in
+ * their values compare equal.
+ */
+final class SqlShape {
+
+    private static final int MAX_LENGTH = 500;
+
+    private SqlShape() {
+    }
+
+    static String of(String sql) {
+        StringBuilder out = new StringBuilder(Math.min(sql.length(), MAX_LENGTH));
+        int n = sql.length();
+        int i = 0;
+        while (i < n && out.length() < MAX_LENGTH) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                i = skipQuoted(sql, i);
+                out.append('?');
+            } else if (Character.isDigit(c) && !partOfIdentifier(sql, i)) {
+                while (i < n && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '.')) i++;
+                out.append('?');
+            } else if (Character.isWhitespace(c)) {
+                while (i < n && Character.isWhitespace(sql.charAt(i))) i++;
+                if (!out.isEmpty()) out.append(' ');
+            } else {
+                out.append(Character.toLowerCase(c));
+                i++;
+            }
+        }
+        return collapseLists(out.toString().trim());
+    }
+
+    private static int skipQuoted(String sql, int start) {
+        int i = start + 1;
+        while (i < sql.length()) {
+            if (sql.charAt(i) == '\'') {
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == '\'') {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean partOfIdentifier(String sql, int i) {
+        if (i == 0) return false;
+        char prev = sql.charAt(i - 1);
+        return Character.isLetterOrDigit(prev) || prev == '_' || prev == '$';
+    }
+
+    // (?, ?, ?) -> (?...) and (?...), (?...) -> (?...)
+    private static String collapseLists(String shape) {
+        String collapsed = shape.replaceAll("\\(\\?(?:, ?\\?)+\\)", "(?...)");
+        return collapsed.replaceAll("\\(\\?\\.\\.\\.\\)(?:, ?\\(\\?\\.\\.\\.\\))+", "(?...)");
+    }
+}
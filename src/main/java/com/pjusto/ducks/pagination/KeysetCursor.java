@@ -0,0 +1,91 @@
+package com.pjusto.ducks.pagination;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Opaque continuation tokens for keyset ("seek") pagination.
+ * <p>
+ * A token encodes the sort key of the last row of a slice; the next slice seeks past it instead of using an
+ * OFFSET, so deep pages cost the same as the first one. The predicate follows the sort direction:
+ * {@code WHERE key > :last} for ascending slices (ducks by id) and {@code WHERE key < :last} for descending
+ * ones (sales and sold ducks, newest first). An empty token means "start from the beginning".
+ */
+public final class KeysetCursor {
+
+    private static final String ID_PREFIX = "i:";
+    private static final String INSTANT_ID_PREFIX = "t:";
+
+    private KeysetCursor() {
+    }
+
+    public static String ofId(long id) {
+        return encode(ID_PREFIX + id);
+    }
+
+    public static String ofInstantAndId(Instant at, long id) {
+        return encode(INSTANT_ID_PREFIX + at.getEpochSecond() + ":" + at.getNano() + ":" + id);
+    }
+
+    @Nullable
+    public static Long decodeId(@Nullable String token) {
+        if (!StringUtils.hasText(token)) {
+            return null;
+        }
+        String raw = decode(token);
+        if (!raw.startsWith(ID_PREFIX)) {
+            throw invalid();
+        }
+        try {
+            return Long.parseLong(raw.substring(ID_PREFIX.length()));
+        } catch (NumberFormatException ex) {
+            throw invalid();
+        }
+    }
+
+    @Nullable
+    public static InstantAndId decodeInstantAndId(@Nullable String token) {
+        if (!StringUtils.hasText(token)) {
+            return null;
+        }
+        String raw = decode(token);
+        if (!raw.startsWith(INSTANT_ID_PREFIX)) {
+            throw invalid();
+        }
+        String[] parts = raw.substring(INSTANT_ID_PREFIX.length()).split(":");
+        if (parts.length != 3) {
+            throw invalid();
+        }
+        try {
+            Instant at = Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+            return new InstantAndId(at, Long.parseLong(parts[2]));
+        } catch (RuntimeException ex) {
+            throw invalid();
+        }
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decode(String token) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            throw invalid();
+        }
+    }
+
+    private static ResponseStatusException invalid() {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid `after` cursor");
+    }
+
+    public record InstantAndId(Instant at, long id) {
+    }
+}
@@ -0,0 +1,24 @@
+package com.pjusto.ducks.pagination;
+
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * JSON shape of a keyset-paginated {@link Slice}: the rows plus the {@code after} token for the next request,
+ * or {@code null} when there is nothing left to read.
+ */
+public record KeysetSlice<T>(
+        List<T> content,
+        int size,
+        boolean hasNext,
+        String next
+) {
+
+    public static <S, T> KeysetSlice<T> of(Slice<S> slice, Function<S, T> mapper, Function<S, String> cursorOf) {
+        List<S> rows = slice.getContent();
+        String next = (slice.hasNext() && !rows.isEmpty()) ? cursorOf.apply(rows.get(rows.size() - 1)) : null;
+        return new KeysetSlice<>(rows.stream().map(mapper).toList(), slice.getSize(), slice.hasNext(), next);
+    }
+}
@@ -0,0 +1,207 @@
+package com.pjusto.ducks.reporting;
+
+import com.pjusto.ducks.cache.SingleFlight;
+import com.pjusto.ducks.cache.SingleFlights;
+import com.pjusto.ducks.duck.DuckRepository;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Versioned cache of the duck report.
+ * <p>
+ * A {@link ReportVersion} is read with one cheap query and identifies the report contents; it doubles as
+ * the HTTP validator. It is built from change counters that triggers bump in the writing transaction, so a
+ * write is reflected as soon as it commits, however late or with whatever clock. The last loaded data is kept in memory and the last rendered workbook on disk (so it
+ * also survives restarts). When only sales changed since the cached data, just the recent sold rows are
+ * re-read and merged into the cached tree; the merged row count is checked against the version and any
+ * mismatch falls back to a full reload. Concurrent requests for the same version share one load or render.
+ */
+@Component
+class DuckReportCache {
+
+    private static final Logger log = LoggerFactory.getLogger(DuckReportCache.class);
+
+    private static final String FILE_PREFIX = "ducks-";
+    private static final String FILE_SUFFIX = ".xlsx";
+
+    /**
+     * How far before the cached version's last sale change the incremental reload looks, so sales that
+     * committed later than newer ones (long transactions, other nodes) are still picked up.
+     */
+    private static final Duration SALE_COMMIT_MARGIN = Duration.ofMinutes(5);
+
+    private final DuckRepository duckRepo;
+    private final SoldDuckViewRepository soldViewRepo;
+    private final Path cacheDir;
+    private final SingleFlight<ReportVersion, Snapshot> loadFlight;
+    private final SingleFlight<ReportVersion, Path> renderFlight;
+
+    private volatile Snapshot snapshot;
+
+    DuckReportCache(
+            DuckRepository duckRepo,
+            SoldDuckViewRepository soldViewRepo,
+            SingleFlights singleFlights,
+            @Value("${ducks.report.cache-dir:${java.io.tmpdir}/ducks-report}") Path cacheDir
+    ) throws IOException {
+        this.duckRepo = duckRepo;
+        this.soldViewRepo = soldViewRepo;
+        this.cacheDir = Files.createDirectories(cacheDir);
+        this.loadFlight = singleFlights.create("ducks-report-data", Duration.ZERO);
+        this.renderFlight = singleFlights.create("ducks-report-workbook", Duration.ZERO);
+    }
+
+    ReportVersion currentVersion() {
+        SoldDuckViewRepository.ReportVersionRow row = soldViewRepo.currentVersion();
+        return new ReportVersion(
+                row.getDuckChanges(),
+                row.getCustomerChanges(),
+                row.getSaleChanges(),
+                row.getSoldCount(),
+                row.getModified(),
+                row.getSaleModified()
+        );
+    }
+
+    /**
+     * Report data at {@code version} or newer.
+     */
+    Snapshot data(ReportVersion version) {
+        Snapshot cached = snapshot;
+        if (cached != null && cached.version().equals(version)) {
+            return cached;
+        }
+        return loadFlight.get(version, () -> load(version));
+    }
+
+    /**
+     * Rendered workbook for {@code version}, from disk when it was already rendered.
+     */
+    Path workbook(ReportVersion version) {
+        Path file = cacheDir.resolve(FILE_PREFIX + version.etag() + FILE_SUFFIX);
+        if (Files.exists(file)) {
+            return file;
+        }
+        return renderFlight.get(version, () -> render(version, file));
+    }
+
+    private Snapshot load(ReportVersion version) {
+        Snapshot cached = snapshot;
+        if (cached != null && cached.version().onlySalesDiffer(version)) {
+            Instant since = cached.version().saleModifiedAt().minus(SALE_COMMIT_MARGIN);
+            Map<Long, SoldDuckView> sold = new HashMap<>(cached.soldByDuckId());
+            for (SoldDuckView row : soldViewRepo.findBySaleDateGreaterThanEqual(since)) {
+                sold.put(row.getDuckId(), row);
+            }
+            if (sold.size() == version.soldCount()) {
+                Snapshot updated = new Snapshot(version, cached.tree(), sold);
+                snapshot = updated;
+                return updated;
+            }
+            log.debug("Incremental duck report reload found {} sold ducks, expected {}; reloading everything",
+                    sold.size(), version.soldCount());
+        }
+
+        DuckTree tree = DuckTree.of(duckRepo.findAll());
+        Map<Long, SoldDuckView> sold = soldViewRepo.findAll().stream()
+                .collect(Collectors.toMap(SoldDuckView::getDuckId, Function.identity()));
+        Snapshot loaded = new Snapshot(version, tree, sold);
+        snapshot = loaded;
+        return loaded;
+    }
+
+    private Path render(ReportVersion version, Path file) {
+        Snapshot data = data(version);
+        try {
+            Path tmp = Files.createTempFile(cacheDir, FILE_PREFIX, ".tmp");
+            try (Workbook wb = new XSSFWorkbook(); OutputStream out = Files.newOutputStream(tmp)) {
+                DuckReportWriter.write(wb, data.tree(), data.soldByDuckId());
+                wb.write(out);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            deleteOlderThan(file);
+            return file;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Keeps the new file and the one before it, which a request may still be sending.
+     */
+    private void deleteOlderThan(Path keep) throws IOException {
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            files.filter(p -> !p.equals(keep))
+                    .filter(p -> p.getFileName().toString().startsWith(FILE_PREFIX))
+                    .sorted((a, b) -> Long.compare(lastModified(b), lastModified(a)))
+                    .skip(1)
+                    .forEach(p -> {
+                        try {
+                            Files.deleteIfExists(p);
+                        } catch (IOException ex) {
+                            log.warn("Could not delete old duck report {}", p, ex);
+                        }
+                    });
+        }
+    }
+
+    private static long lastModified(Path p) {
+        try {
+            return Files.getLastModifiedTime(p).toMillis();
+        } catch (IOException ex) {
+            return 0L;
+        }
+    }
+
+    record Snapshot(ReportVersion version, DuckTree tree, Map<Long, SoldDuckView> soldByDuckId) {
+    }
+
+    /**
+     * Change counters per source plus the sold row count; {@code modified} and {@code saleModified} are the
+     * epoch microseconds of the last change overall and to sales.
+     */
+    record ReportVersion(
+            long duckChanges,
+            long customerChanges,
+            long saleChanges,
+            long soldCount,
+            long modified,
+            long saleModified
+    ) {
+
+        /** Opaque and file-name safe. */
+        String etag() {
+            return Long.toString(duckChanges, 36) + "-" + Long.toString(customerChanges, 36) + "-"
+                    + Long.toString(saleChanges, 36) + "-" + Long.toString(soldCount, 36);
+        }
+
+        Instant lastModified() {
+            return Instant.EPOCH.plus(modified, ChronoUnit.MICROS);
+        }
+
+        Instant saleModifiedAt() {
+            return Instant.EPOCH.plus(saleModified, ChronoUnit.MICROS);
+        }
+
+        boolean onlySalesDiffer(ReportVersion other) {
+            return duckChanges == other.duckChanges && customerChanges == other.customerChanges;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.pjusto.ducks.reporting;
+
+import com.pjusto.ducks.duck.Duck;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.ss.util.CellRangeAddress;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Fills the "GERENCIAMENTO DE PATOS" sheet. Works on any {@link Workbook}, including a windowed
+ * {@code SXSSFWorkbook}: rows are written strictly top to bottom and never revisited, and column
+ * widths come from string lengths tracked while writing rather than from {@code autoSizeColumn},
+ * which would need every row in memory.
+ * <p>
+ * Generations are shown by indenting the name cell, one shared style per depth, rather than by merging
+ * name cells: merged regions are kept by the sheet for the whole write, so one per duck would grow with
+ * the flock even in a streaming workbook.
+ */
+final class DuckReportWriter {
+
+    static final String SHEET_NAME = "GERENCIAMENTO DE PATOS";
+
+    private static final int NAME_COL = 0;
+    private static final int STATUS_COL = 1;
+    private static final int CUSTOMER_COL = 2;
+    private static final int CUSTOMER_TYPE_COL = 3;
+    private static final int PRICE_COL = 4;
+    private static final int TOTAL_COLS = 5;
+
+    /** Approximate characters covered by one indent level. */
+    private static final int INDENT_WIDTH = 3;
+    /** Largest indent Excel accepts. */
+    private static final int MAX_INDENT = 250;
+    private static final int WIDTH_PADDING = 2;
+    private static final int MAX_WIDTH = 255;
+
+    private DuckReportWriter() {
+    }
+
+    static void write(Workbook wb, DuckTree tree, Map<Long, SoldDuckView> soldByDuckId) {
+        int[] widths = new int[TOTAL_COLS];
+
+        Sheet sheet = wb.createSheet(SHEET_NAME);
+
+        CellStyle titleStyle = wb.createCellStyle();
+        Font titleFont = wb.createFont(); titleFont.setBold(true); titleFont.setFontHeightInPoints((short)14);
+        titleStyle.setFont(titleFont); titleStyle.setAlignment(HorizontalAlignment.CENTER);
+
+        CellStyle headerStyle = wb.createCellStyle();
+        Font headerFont = wb.createFont(); headerFont.setBold(true);
+        headerStyle.setFont(headerFont);
+        headerStyle.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
+        headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+        headerStyle.setAlignment(HorizontalAlignment.CENTER);
+
+        CellStyle currencyStyle = wb.createCellStyle();
+        DataFormat fmt = wb.createDataFormat();
+        currencyStyle.setDataFormat(fmt.getFormat("[$R$-416] #,##0.00"));
+
+        CellStyle[] nameStyles = new CellStyle[Math.min(tree.maxDepth(), MAX_INDENT) + 1];
+        for (int depth = 0; depth < nameStyles.length; depth++) {
+            nameStyles[depth] = wb.createCellStyle();
+            nameStyles[depth].setIndention((short) depth);
+        }
+
+        Row titleRow = sheet.createRow(0);
+        for (int c = 0; c < TOTAL_COLS; c++) titleRow.createCell(c);
+        titleRow.getCell(0).setCellValue(SHEET_NAME);
+        titleRow.getCell(0).setCellStyle(titleStyle);
+        sheet.addMergedRegionUnsafe(new CellRangeAddress(0, 0, 0, TOTAL_COLS - 1));
+
+        Row header = sheet.createRow(2);
+        for (int c = 0; c < TOTAL_COLS; c++) header.createCell(c);
+        setText(header, NAME_COL, "Nome", widths);
+        setText(header, STATUS_COL, "Status", widths);
+        setText(header, CUSTOMER_COL, "Cliente", widths);
+        setText(header, CUSTOMER_TYPE_COL, "Tipo do cliente", widths);
+        setText(header, PRICE_COL, "Valor", widths);
+        for (int c = 0; c < TOTAL_COLS; c++) header.getCell(c).setCellStyle(headerStyle);
+
+        int[] rowIdx = {3};
+        tree.walk((d, depth) -> writeDuckRow(sheet, rowIdx[0]++, d, depth, nameStyles, soldByDuckId, currencyStyle, widths));
+
+        for (int c = 0; c < TOTAL_COLS; c++) {
+            sheet.setColumnWidth(c, Math.min(MAX_WIDTH, widths[c] + WIDTH_PADDING) * 256);
+        }
+    }
+
+    private static void writeDuckRow(
+            Sheet sheet,
+            int rowIdx,
+            Duck d,
+            int depth,
+            CellStyle[] nameStyles,
+            Map<Long, SoldDuckView> soldByDuckId,
+            CellStyle currencyStyle,
+            int[] widths
+    ) {
+        Row r = sheet.createRow(rowIdx);
+        for (int c = 0; c < TOTAL_COLS; c++) r.createCell(c);
+
+        int indent = Math.min(depth, nameStyles.length - 1);
+        Cell nameCell = r.getCell(NAME_COL);
+        nameCell.setCellValue(d.getName());
+        nameCell.setCellStyle(nameStyles[indent]);
+        widths[NAME_COL] = Math.max(widths[NAME_COL], INDENT_WIDTH * indent + d.getName().length());
+
+        SoldDuckView sold = soldByDuckId.get(d.getId());
+        if (sold == null) {
+            setText(r, STATUS_COL, "Disponível", widths);
+            setText(r, CUSTOMER_COL, "-", widths);
+            setText(r, CUSTOMER_TYPE_COL, "-", widths);
+            setText(r, PRICE_COL, "-", widths);
+        } else {
+            setText(r, STATUS_COL, "Vendido", widths);
+            setText(r, CUSTOMER_COL, sold.getCustomerName(), widths);
+
+            BigDecimal currentPrice = d.getPrice();
+            String tipo = (currentPrice != null && sold.getPriceAtSale().compareTo(currentPrice) < 0)
+                    ? "com Desconto" : "sem Desconto";
+            setText(r, CUSTOMER_TYPE_COL, tipo, widths);
+
+            Cell priceCell = r.getCell(PRICE_COL);
+            priceCell.setCellValue(sold.getPriceAtSale().doubleValue());
+            priceCell.setCellStyle(currencyStyle);
+            // "R$ " prefix plus grouping separators of the currency format
+            String plain = sold.getPriceAtSale().toPlainString();
+            widths[PRICE_COL] = Math.max(widths[PRICE_COL], 3 + plain.length() + plain.length() / 3);
+        }
+    }
+
+    private static void setText(Row row, int col, String value, int[] widths) {
+        row.getCell(col).setCellValue(value);
+        widths[col] = Math.max(widths[col], value.length());
+    }
+}
@@ -0,0 +1,75 @@
+package com.pjusto.ducks.reporting;
+
+import com.pjusto.ducks.duck.Duck;
+
+import java.util.*;
+
+/**
+ * Mother/child forest of the report, with siblings sorted case-insensitively by name.
+ * Walks are iterative so deep lineages cannot overflow the stack.
+ */
+final class DuckTree {
+
+    private static final Comparator<Duck> BY_NAME = Comparator.comparing(Duck::getName, String.CASE_INSENSITIVE_ORDER);
+
+    private final List<Duck> roots;
+    private final Map<Long, List<Duck>> children;
+    private final int maxDepth;
+
+    private DuckTree(List<Duck> roots, Map<Long, List<Duck>> children, int maxDepth) {
+        this.roots = roots;
+        this.children = children;
+        this.maxDepth = maxDepth;
+    }
+
+    static DuckTree of(Collection<Duck> ducks) {
+        Map<Long, List<Duck>> children = new HashMap<>();
+        List<Duck> roots = new ArrayList<>();
+        for (Duck d : ducks) {
+            Long momId = (d.getMother() != null) ? d.getMother().getId() : null;
+            if (momId == null) {
+                roots.add(d);
+            } else {
+                children.computeIfAbsent(momId, k -> new ArrayList<>()).add(d);
+            }
+        }
+        roots.sort(BY_NAME);
+        children.values().forEach(list -> list.sort(BY_NAME));
+
+        DuckTree tree = new DuckTree(roots, children, 0);
+        int[] maxDepth = {0};
+        tree.walk((duck, depth) -> maxDepth[0] = Math.max(maxDepth[0], depth));
+        return new DuckTree(roots, children, maxDepth[0]);
+    }
+
+    int maxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * Pre-order walk: each duck is visited before its children, siblings in name order.
+     * Ducks caught in a mother cycle are unreachable from any root and are not visited.
+     */
+    void walk(Visitor visitor) {
+        Deque<Iterator<Duck>> stack = new ArrayDeque<>();
+        stack.push(roots.iterator());
+        while (!stack.isEmpty()) {
+            Iterator<Duck> level = stack.peek();
+            if (!level.hasNext()) {
+                stack.pop();
+                continue;
+            }
+            Duck d = level.next();
+            visitor.visit(d, stack.size() - 1);
+            List<Duck> kids = children.get(d.getId());
+            if (kids != null && !kids.isEmpty()) {
+                stack.push(kids.iterator());
+            }
+        }
+    }
+
+    @FunctionalInterface
+    interface Visitor {
+        void visit(Duck duck, int depth);
+    }
+}
@@ -0,0 +1,43 @@
+package com.pjusto.ducks.reporting;
+
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+
+/**
+ * The "GERENCIAMENTO DE PATOS" workbook, rendered through {@link DuckReportCache} so jobs and the
+ * synchronous endpoint share the same cached file per report version.
+ */
+@Component
+public class DuckWorkbookReport implements ReportGenerator {
+
+    static final String CONTENT_TYPE = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+
+    private final DuckReportCache reportCache;
+
+    public DuckWorkbookReport(DuckReportCache reportCache) {
+        this.reportCache = reportCache;
+    }
+
+    @Override
+    public String name() {
+        return "ducks.xlsx";
+    }
+
+    @Override
+    public String contentType() {
+        return CONTENT_TYPE;
+    }
+
+    @Override
+    public String fileName() {
+        return "gerenciamento_de_patos.xlsx";
+    }
+
+    @Override
+    public void write(OutputStream out) throws IOException {
+        Files.copy(reportCache.workbook(reportCache.currentVersion()), out);
+    }
+}
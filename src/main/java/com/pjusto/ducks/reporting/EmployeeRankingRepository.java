@@ -6,29 +6,95 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.Repository;
 
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.util.List;
 
+/**
+ * Rankings read whole UTC days from the {@code sales_daily_employee} rollup and only touch raw
+ * {@code sale} rows for the partial days at either edge of the range (none when the bounds are day-aligned).
+ */
 public interface EmployeeRankingRepository extends Repository<Sale, Long> {
-    @Query("""
+
+    default List<EmployeeRankingView> rankByCount(Instant from, Instant to, Pageable pageable) {
+        DayBuckets b = DayBuckets.split(from, to);
+        return rankByCountFromRollup(b.firstDay(), b.endDay(), from, b.headEnd(), b.tailStart(), to, pageable);
+    }
+
+    default List<EmployeeRankingView> rankByRevenue(Instant from, Instant to, Pageable pageable) {
+        DayBuckets b = DayBuckets.split(from, to);
+        return rankByRevenueFromRollup(b.firstDay(), b.endDay(), from, b.headEnd(), b.tailStart(), to, pageable);
+    }
+
+    @Query(nativeQuery = true, value = """
   select e.id as employeeId, e.name as employeeName,
-         count(s.id) as saleCount,
-         coalesce(sum(s.totalAfterDiscount), 0) as revenue
-  from Sale s join s.employee e
-  where s.saleDate >= :from and s.saleDate < :to
+         cast(sum(x.sale_count) as bigint) as saleCount,
+         coalesce(sum(x.revenue), 0) as revenue
+  from (
+    select r.employee_id, r.sale_count, r.revenue
+    from sales_daily_employee r
+    where r.day >= :firstDay and r.day < :endDay
+    union all
+    select s.employee_id, 1, s.total_after_discount
+    from sale s
+    where (s.sale_date >= :from and s.sale_date < :headEnd)
+       or (s.sale_date >= :tailStart and s.sale_date < :to)
+  ) x
+  join employee e on e.id = x.employee_id
   group by e.id, e.name
-  order by count(s.id) desc, coalesce(sum(s.totalAfterDiscount),0) desc, e.id asc
+  order by saleCount desc, revenue desc, e.id asc
   """)
-    List<EmployeeRankingView> rankByCount(Instant from, Instant to, Pageable pageable);
+    List<EmployeeRankingView> rankByCountFromRollup(
+            LocalDate firstDay, LocalDate endDay,
+            Instant from, Instant headEnd, Instant tailStart, Instant to,
+            Pageable pageable);
 
-    @Query("""
+    @Query(nativeQuery = true, value = """
   select e.id as employeeId, e.name as employeeName,
-         count(s.id) as saleCount,
-         coalesce(sum(s.totalAfterDiscount), 0) as revenue
-  from Sale s join s.employee e
-  where s.saleDate >= :from and s.saleDate < :to
+         cast(sum(x.sale_count) as bigint) as saleCount,
+         coalesce(sum(x.revenue), 0) as revenue
+  from (
+    select r.employee_id, r.sale_count, r.revenue
+    from sales_daily_employee r
+    where r.day >= :firstDay and r.day < :endDay
+    union all
+    select s.employee_id, 1, s.total_after_discount
+    from sale s
+    where (s.sale_date >= :from and s.sale_date < :headEnd)
+       or (s.sale_date >= :tailStart and s.sale_date < :to)
+  ) x
+  join employee e on e.id = x.employee_id
   group by e.id, e.name
-  order by coalesce(sum(s.totalAfterDiscount),0) desc, count(s.id) desc, e.id asc
+  order by revenue desc, saleCount desc, e.id asc
   """)
-    List<EmployeeRankingView> rankByRevenue(Instant from, Instant to, Pageable pageable);
+    List<EmployeeRankingView> rankByRevenueFromRollup(
+            LocalDate firstDay, LocalDate endDay,
+            Instant from, Instant headEnd, Instant tailStart, Instant to,
+            Pageable pageable);
+
+    /**
+     * Splits {@code [from, to)} into whole UTC days {@code [firstDay, endDay)} plus raw-row edges
+     * {@code [from, headEnd)} and {@code [tailStart, to)}. A range inside a single day has no whole days
+     * and is read entirely from the head edge.
+     */
+    record DayBuckets(LocalDate firstDay, LocalDate endDay, Instant headEnd, Instant tailStart) {
+
+        static DayBuckets split(Instant from, Instant to) {
+            LocalDate fromDay = from.atZone(ZoneOffset.UTC).toLocalDate();
+            LocalDate firstDay = fromDay.atStartOfDay(ZoneOffset.UTC).toInstant().equals(from)
+                    ? fromDay
+                    : fromDay.plusDays(1);
+            LocalDate endDay = to.atZone(ZoneOffset.UTC).toLocalDate();
 
+            if (!firstDay.isBefore(endDay)) {
+                return new DayBuckets(firstDay, firstDay, to, to);
+            }
+            return new DayBuckets(
+                    firstDay,
+                    endDay,
+                    firstDay.atStartOfDay(ZoneOffset.UTC).toInstant(),
+                    endDay.atStartOfDay(ZoneOffset.UTC).toInstant()
+            );
+        }
+    }
 }
@@ -0,0 +1,324 @@
+package com.pjusto.ducks.reporting;
+
+import com.pjusto.ducks.cache.EntityInvalidatedEvent;
+import com.pjusto.ducks.cache.EntityType;
+import com.pjusto.ducks.reporting.RankingController.EmployeeRankingItem;
+import com.pjusto.ducks.sale.SaleCreatedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.*;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory employee standings for "today", "this week" (ISO, Monday start) and "all time", in UTC days
+ * like the ranking endpoints.
+ * <p>
+ * Seeded from the daily rollup at startup, then updated from every committed {@link SaleCreatedEvent}
+ * and re-seeded when another node reports new sales.
+ * Each window keeps one sorted set per metric, so any top-K is read by walking the head of a set instead of
+ * re-running the GROUP BY. Subscribers receive a full snapshot on connect and afterwards only the ranks whose
+ * entries changed; pushes run on a dedicated thread so a slow client never delays a checkout.
+ */
+@Component
+public class LiveLeaderboard implements SmartInitializingSingleton, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(LiveLeaderboard.class);
+
+    private static final Duration EMITTER_TIMEOUT = Duration.ofMinutes(30);
+    private static final Instant ALL_TIME_FROM = Instant.parse("0001-01-01T00:00:00Z");
+    private static final Instant ALL_TIME_TO = Instant.parse("9999-12-31T23:59:59Z");
+    private static final int SEED_ATTEMPTS = 3;
+
+    private static final Comparator<Standing> BY_COUNT = Comparator
+            .comparingLong(Standing::saleCount).reversed()
+            .thenComparing(Standing::revenue, Comparator.reverseOrder())
+            .thenComparing(Standing::employeeId);
+
+    private static final Comparator<Standing> BY_REVENUE = Comparator
+            .comparing(Standing::revenue, Comparator.reverseOrder())
+            .thenComparing(Comparator.comparingLong(Standing::saleCount).reversed())
+            .thenComparing(Standing::employeeId);
+
+    public enum Window { TODAY, WEEK, ALL_TIME }
+
+    public enum Metric { COUNT, REVENUE }
+
+    private final EmployeeRankingRepository rankRepository;
+    private final Clock clock = Clock.systemUTC();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Window, Board> boards = new EnumMap<>(Window.class);
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    /** Sales recorded so far; guarded by {@link #lock}, lets a seed tell whether one raced its queries. */
+    private long recorded;
+    private final AtomicBoolean reseedPending = new AtomicBoolean();
+    private final ExecutorService pushExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "leaderboard-push");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public LiveLeaderboard(EmployeeRankingRepository rankRepository) {
+        this.rankRepository = rankRepository;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        seed();
+    }
+
+    /**
+     * Runs the rollup queries without holding {@link #lock}, so checkouts and readers are not held up by them,
+     * and only swaps the new boards in under it. A sale recorded while the queries ran may or may not be in
+     * their results, so such a seed is discarded and retried; after {@link #SEED_ATTEMPTS} tries the last
+     * result is kept and the next re-seed settles any difference.
+     */
+    private void seed() {
+        for (int attempt = 1; ; attempt++) {
+            long recordedBefore;
+            lock.lock();
+            try {
+                recordedBefore = recorded;
+            } finally {
+                lock.unlock();
+            }
+
+            Map<Window, Board> seeded = loadBoards(LocalDate.now(clock));
+
+            int employees;
+            lock.lock();
+            try {
+                if (recorded != recordedBefore && attempt < SEED_ATTEMPTS) {
+                    continue;
+                }
+                boards.putAll(seeded);
+                employees = seeded.get(Window.ALL_TIME).byEmployee.size();
+            } finally {
+                lock.unlock();
+            }
+            log.info("Live leaderboard seeded with {} employees", employees);
+            return;
+        }
+    }
+
+    private Map<Window, Board> loadBoards(LocalDate today) {
+        Map<Window, Board> seeded = new EnumMap<>(Window.class);
+        for (Window window : Window.values()) {
+            Board board = new Board(periodStart(window, today));
+            Instant from = (window == Window.ALL_TIME) ? ALL_TIME_FROM : startOf(board.period);
+            Instant to = (window == Window.ALL_TIME) ? ALL_TIME_TO : startOf(periodEnd(window, board.period));
+            for (EmployeeRankingView row : rankRepository.rankByCount(from, to, Pageable.unpaged())) {
+                board.add(row.getEmployeeId(), row.getEmployeeName(), row.getSaleCount(), row.getRevenue());
+            }
+            seeded.put(window, board);
+        }
+        return seeded;
+    }
+
+    @TransactionalEventListener
+    public void onSaleCreated(SaleCreatedEvent event) {
+        record(event.employeeId(), event.employeeName(), event.saleDate(), event.totalAfterDiscount());
+    }
+
+    /**
+     * Sales created on other nodes only arrive as ids, so the standings are re-seeded from the rollup.
+     * A burst of notifications collapses into one re-seed.
+     */
+    @EventListener
+    public void onInvalidated(EntityInvalidatedEvent event) {
+        if (event.type() == EntityType.SALE && event.remote() && reseedPending.compareAndSet(false, true)) {
+            pushExecutor.execute(() -> {
+                reseedPending.set(false);
+                seed();
+                pushChanges();
+            });
+        }
+    }
+
+    void record(Long employeeId, String employeeName, Instant saleDate, BigDecimal revenue) {
+        LocalDate day = saleDate.atZone(ZoneOffset.UTC).toLocalDate();
+        lock.lock();
+        try {
+            recorded++;
+            for (Window window : Window.values()) {
+                Board board = currentBoard(window);
+                if (window == Window.ALL_TIME
+                        || (!day.isBefore(board.period) && day.isBefore(periodEnd(window, board.period)))) {
+                    board.add(employeeId, employeeName, 1, revenue);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        pushExecutor.execute(this::pushChanges);
+    }
+
+    public List<EmployeeRankingItem> top(Window window, Metric metric, int limit) {
+        lock.lock();
+        try {
+            return currentBoard(window).top(metric, limit);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public SseEmitter subscribe(Window window, Metric metric, int limit) {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT.toMillis());
+        List<EmployeeRankingItem> snapshot = top(window, metric, limit);
+        Subscription sub = new Subscription(emitter, window, metric, limit, snapshot);
+
+        emitter.onCompletion(() -> subscriptions.remove(sub));
+        emitter.onTimeout(() -> subscriptions.remove(sub));
+        emitter.onError(ex -> subscriptions.remove(sub));
+
+        try {
+            emitter.send(SseEmitter.event().name("snapshot").data(snapshot, MediaType.APPLICATION_JSON));
+        } catch (IOException ex) {
+            emitter.completeWithError(ex);
+            return emitter;
+        }
+        subscriptions.add(sub);
+        // a subscribe may be the first touch after midnight; let existing subscribers see the rollover too
+        pushExecutor.execute(this::pushChanges);
+        return emitter;
+    }
+
+    private void pushChanges() {
+        for (Subscription sub : subscriptions) {
+            List<EmployeeRankingItem> current = top(sub.window, sub.metric, sub.limit);
+            List<EmployeeRankingItem> changed = new ArrayList<>();
+            for (int i = 0; i < current.size(); i++) {
+                if (i >= sub.last.size() || !current.get(i).equals(sub.last.get(i))) {
+                    changed.add(current.get(i));
+                }
+            }
+            if (changed.isEmpty() && current.size() == sub.last.size()) {
+                continue;
+            }
+            try {
+                sub.emitter.send(SseEmitter.event()
+                        .name("rank")
+                        .data(new LiveRankingChange(current.size(), changed), MediaType.APPLICATION_JSON));
+                sub.last = current;
+            } catch (IOException | IllegalStateException ex) {
+                subscriptions.remove(sub);
+                sub.emitter.completeWithError(ex);
+            }
+        }
+    }
+
+    private Board currentBoard(Window window) {
+        Board board = boards.get(window);
+        LocalDate period = periodStart(window, LocalDate.now(clock));
+        if (board == null || !board.period.equals(period)) {
+            board = new Board(period);
+            boards.put(window, board);
+        }
+        return board;
+    }
+
+    private static LocalDate periodStart(Window window, LocalDate today) {
+        return switch (window) {
+            case TODAY -> today;
+            case WEEK -> today.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case ALL_TIME -> LocalDate.EPOCH;
+        };
+    }
+
+    private static LocalDate periodEnd(Window window, LocalDate start) {
+        return switch (window) {
+            case TODAY -> start.plusDays(1);
+            case WEEK -> start.plusWeeks(1);
+            case ALL_TIME -> LocalDate.MAX;
+        };
+    }
+
+    private static Instant startOf(LocalDate day) {
+        return day.atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+
+    @Override
+    public void destroy() {
+        pushExecutor.shutdownNow();
+        subscriptions.forEach(sub -> sub.emitter.complete());
+        subscriptions.clear();
+    }
+
+    /**
+     * Payload of a {@code rank} event: the entries whose rank changed and the new list size,
+     * so clients can truncate when an entry drops out (e.g. when "today" rolls over).
+     */
+    public record LiveRankingChange(int size, List<EmployeeRankingItem> changed) {
+    }
+
+    private record Standing(Long employeeId, String employeeName, long saleCount, BigDecimal revenue) {
+    }
+
+    private static final class Board {
+        final LocalDate period;
+        final Map<Long, Standing> byEmployee = new HashMap<>();
+        final TreeSet<Standing> byCount = new TreeSet<>(BY_COUNT);
+        final TreeSet<Standing> byRevenue = new TreeSet<>(BY_REVENUE);
+
+        Board(LocalDate period) {
+            this.period = period;
+        }
+
+        void add(Long employeeId, String employeeName, long saleCount, BigDecimal revenue) {
+            Standing old = byEmployee.get(employeeId);
+            Standing updated = (old == null)
+                    ? new Standing(employeeId, employeeName, saleCount, revenue)
+                    : new Standing(employeeId, employeeName, old.saleCount() + saleCount, old.revenue().add(revenue));
+            if (old != null) {
+                byCount.remove(old);
+                byRevenue.remove(old);
+            }
+            byEmployee.put(employeeId, updated);
+            byCount.add(updated);
+            byRevenue.add(updated);
+        }
+
+        List<EmployeeRankingItem> top(Metric metric, int limit) {
+            TreeSet<Standing> order = (metric == Metric.COUNT) ? byCount : byRevenue;
+            List<EmployeeRankingItem> out = new ArrayList<>(Math.min(limit, order.size()));
+            int rank = 1;
+            for (Standing s : order) {
+                if (rank > limit) break;
+                out.add(new EmployeeRankingItem(rank++, s.employeeId(), s.employeeName(), s.saleCount(), s.revenue()));
+            }
+            return out;
+        }
+    }
+
+    private static final class Subscription {
+        final SseEmitter emitter;
+        final Window window;
+        final Metric metric;
+        final int limit;
+        volatile List<EmployeeRankingItem> last;
+
+        Subscription(SseEmitter emitter, Window window, Metric metric, int limit, List<EmployeeRankingItem> last) {
+            this.emitter = emitter;
+            this.window = window;
+            this.metric = metric;
+            this.limit = limit;
+            this.last = last;
+        }
+    }
+}
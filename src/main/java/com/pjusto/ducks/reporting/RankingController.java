@@ -1,10 +1,16 @@
 package com.pjusto.ducks.reporting;
 
+import com.pjusto.ducks.cache.EntityType;
+import com.pjusto.ducks.cache.SingleFlight;
+import com.pjusto.ducks.cache.SingleFlights;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.math.BigDecimal;
 import java.time.*;
@@ -16,9 +22,19 @@ import java.util.List;
 public class RankingController {
 
     private final EmployeeRankingRepository rankRepository;
+    private final LiveLeaderboard liveLeaderboard;
+    private final SingleFlight<RankingKey, List<EmployeeRankingItem>> rankingFlight;
 
-    public RankingController(EmployeeRankingRepository rankRepository) {
+    public RankingController(
+            EmployeeRankingRepository rankRepository,
+            LiveLeaderboard liveLeaderboard,
+            SingleFlights singleFlights,
+            @Value("${ducks.coalescing.ranking-ttl:PT2S}") Duration rankingTtl
+    ) {
         this.rankRepository = rankRepository;
+        this.liveLeaderboard = liveLeaderboard;
+        this.rankingFlight = singleFlights.create("employee-rankings", rankingTtl,
+                EntityType.SALE, EntityType.EMPLOYEE);
     }
 
     @GetMapping("/count")
@@ -29,9 +45,11 @@ public class RankingController {
     ) {
         if (limit <= 0) throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be > 0");
         Bounds b = parseBounds(from, to);
-        var pr = PageRequest.of(0, limit, Sort.unsorted());
-        List<EmployeeRankingView> rows = rankRepository.rankByCount(b.from, b.toExclusive, pr);
-        return toItems(rows);
+        return rankingFlight.get(new RankingKey(LiveLeaderboard.Metric.COUNT, b, limit), () -> {
+            var pr = PageRequest.of(0, limit, Sort.unsorted());
+            List<EmployeeRankingView> rows = rankRepository.rankByCount(b.from, b.toExclusive, pr);
+            return toItems(rows);
+        });
     }
 
     @GetMapping("/revenue")
@@ -42,9 +60,38 @@ public class RankingController {
     ) {
         if (limit <= 0) throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be > 0");
         Bounds b = parseBounds(from, to);
-        var pr = PageRequest.of(0, limit, Sort.unsorted());
-        List<EmployeeRankingView> rows = rankRepository.rankByRevenue(b.from, b.toExclusive, pr);
-        return toItems(rows);
+        return rankingFlight.get(new RankingKey(LiveLeaderboard.Metric.REVENUE, b, limit), () -> {
+            var pr = PageRequest.of(0, limit, Sort.unsorted());
+            List<EmployeeRankingView> rows = rankRepository.rankByRevenue(b.from, b.toExclusive, pr);
+            return toItems(rows);
+        });
+    }
+
+    /**
+     * Server-Sent Events stream of the in-memory leaderboard: a {@code snapshot} event on connect, then
+     * {@code rank} events carrying only the entries whose rank changed.
+     */
+    @GetMapping(value = "/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter live(
+            @RequestParam(defaultValue = "today") String window,
+            @RequestParam(defaultValue = "count") String by,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        if (limit <= 0) throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be > 0");
+        LiveLeaderboard.Window w = switch (window) {
+            case "today" -> LiveLeaderboard.Window.TODAY;
+            case "week" -> LiveLeaderboard.Window.WEEK;
+            case "all" -> LiveLeaderboard.Window.ALL_TIME;
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "window must be one of today, week, all: " + window);
+        };
+        LiveLeaderboard.Metric metric = switch (by) {
+            case "count" -> LiveLeaderboard.Metric.COUNT;
+            case "revenue" -> LiveLeaderboard.Metric.REVENUE;
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "by must be one of count, revenue: " + by);
+        };
+        return liveLeaderboard.subscribe(w, metric, limit);
     }
 
     private static Bounds parseBounds(String from, String to) {
@@ -89,6 +136,12 @@ public class RankingController {
     private record Bounds(Instant from, Instant toExclusive) {
     }
 
+    /**
+     * Single-flight key: parsed bounds rather than raw strings, so "from=" and no {@code from} share a flight.
+     */
+    private record RankingKey(LiveLeaderboard.Metric metric, Bounds bounds, int limit) {
+    }
+
     public record EmployeeRankingItem(
             int rank,
             Long employeeId,
@@ -0,0 +1,24 @@
+package com.pjusto.ducks.reporting;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A downloadable report. Every {@code ReportGenerator} bean can be requested as a background job through
+ * {@code POST /reports/jobs} by its {@link #name()}.
+ */
+public interface ReportGenerator {
+
+    /** Identifier used in job requests, e.g. {@code ducks.xlsx}. */
+    String name();
+
+    String contentType();
+
+    /** File name offered to the client in {@code Content-Disposition}. */
+    String fileName();
+
+    /**
+     * Writes the whole report; runs on a report-job worker thread, outside any request.
+     */
+    void write(OutputStream out) throws IOException;
+}
@@ -0,0 +1,110 @@
+package com.pjusto.ducks.reporting;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/reports/jobs")
+public class ReportJobController {
+
+    private static final String DEFAULT_REPORT = "ducks.xlsx";
+
+    private final ReportJobService jobService;
+
+    public ReportJobController(ReportJobService jobService) {
+        this.jobService = jobService;
+    }
+
+    @PostMapping
+    public ResponseEntity<ReportJobResponse> submit(@RequestBody(required = false) @Nullable ReportJobRequest req) {
+        String report = (req != null && req.report() != null) ? req.report() : DEFAULT_REPORT;
+        ReportJobService.Job job = jobService.submit(report);
+
+        URI location = ServletUriComponentsBuilder
+                .fromCurrentRequest()
+                .path("/{id}")
+                .buildAndExpand(job.id())
+                .toUri();
+
+        return ResponseEntity.accepted().location(location).body(toResponse(job));
+    }
+
+    @GetMapping("/{id}")
+    public ReportJobResponse status(@PathVariable UUID id) {
+        return toResponse(findOrNotFound(id));
+    }
+
+    @GetMapping("/{id}/download")
+    public ResponseEntity<Resource> download(@PathVariable UUID id) {
+        ReportJobService.Job job = findOrNotFound(id);
+        if (job.status() == ReportJobService.Status.FAILED) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Report job failed: " + job.error());
+        }
+        if (job.status() != ReportJobService.Status.SUCCEEDED) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Report job is not finished yet: " + job.status());
+        }
+
+        ReportGenerator generator = job.generator();
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(generator.contentType()))
+                .header("Content-Disposition", ContentDisposition.attachment()
+                        .filename(generator.fileName(), StandardCharsets.UTF_8)
+                        .build()
+                        .toString())
+                .body(new FileSystemResource(job.artifact()));
+    }
+
+    private ReportJobService.Job findOrNotFound(UUID id) {
+        return jobService.find(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Report job not found"));
+    }
+
+    private static ReportJobResponse toResponse(ReportJobService.Job job) {
+        String download = (job.status() == ReportJobService.Status.SUCCEEDED)
+                ? ServletUriComponentsBuilder.fromCurrentContextPath()
+                        .path("/reports/jobs/{id}/download")
+                        .buildAndExpand(job.id())
+                        .toUriString()
+                : null;
+        return new ReportJobResponse(
+                job.id(),
+                job.generator().name(),
+                job.status(),
+                job.createdAt(),
+                job.startedAt(),
+                job.finishedAt(),
+                job.error(),
+                download
+        );
+    }
+
+    public record ReportJobRequest(
+            String report
+    ) {
+    }
+
+    public record ReportJobResponse(
+            UUID id,
+            String report,
+            ReportJobService.Status status,
+            Instant createdAt,
+            Instant startedAt,
+            Instant finishedAt,
+            String error,
+            String downloadUrl
+    ) {
+    }
+}
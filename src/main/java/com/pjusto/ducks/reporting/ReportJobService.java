@@ -0,0 +1,195 @@
+package com.pjusto.ducks.reporting;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Runs {@link ReportGenerator}s in the background and keeps their output as files.
+ * <p>
+ * Jobs run on a fixed pool of workers behind a bounded queue; when the queue is full, new jobs are
+ * refused with 503 instead of piling up. Each artifact is written to a temp file and renamed when
+ * complete, so a download never sees a partial file. Finished jobs and their files are removed after
+ * the retention period. Job state lives in memory on the node that accepted the job. In virtual-thread
+ * mode the workers are virtual threads; their number still bounds how many reports render at once.
+ */
+@Component
+public class ReportJobService implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportJobService.class);
+
+    public enum Status { QUEUED, RUNNING, SUCCEEDED, FAILED }
+
+    private final Map<String, ReportGenerator> generators;
+    private final Path artifactDir;
+    private final Duration retention;
+    private final ThreadPoolExecutor executor;
+    private final Map<UUID, Job> jobs = new ConcurrentHashMap<>();
+    private final Clock clock = Clock.systemUTC();
+
+    public ReportJobService(
+            List<ReportGenerator> generators,
+            @Value("${ducks.reports.jobs.dir:${java.io.tmpdir}/ducks-report-jobs}") Path artifactDir,
+            @Value("${ducks.reports.jobs.retention:PT1H}") Duration retention,
+            @Value("${ducks.reports.jobs.workers:2}") int workers,
+            @Value("${ducks.reports.jobs.queue-capacity:20}") int queueCapacity,
+            Environment environment
+    ) throws IOException {
+        this.generators = generators.stream()
+                .collect(Collectors.toUnmodifiableMap(ReportGenerator::name, Function.identity()));
+        this.artifactDir = Files.createDirectories(artifactDir);
+        this.retention = retention;
+        this.executor = new ThreadPoolExecutor(
+                workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Threading.VIRTUAL.isActive(environment)
+                        ? new VirtualThreadTaskExecutor("report-job-").getVirtualThreadFactory()
+                        : r -> {
+                            Thread t = new Thread(r, "report-job");
+                            t.setDaemon(true);
+                            return t;
+                        },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    public Job submit(String reportName) {
+        ReportGenerator generator = generators.get(reportName);
+        if (generator == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Unknown report: " + reportName + "; available: " + generators.keySet());
+        }
+
+        Job job = new Job(UUID.randomUUID(), generator, clock.instant());
+        jobs.put(job.id, job);
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException ex) {
+            jobs.remove(job.id);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Report queue is full, try again later");
+        }
+        return job;
+    }
+
+    public Optional<Job> find(UUID id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    private void run(Job job) {
+        job.status = Status.RUNNING;
+        job.startedAt = clock.instant();
+        Path target = artifactDir.resolve(job.id + "-" + job.generator.fileName());
+        try {
+            Path tmp = Files.createTempFile(artifactDir, job.id.toString(), ".tmp");
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                job.generator.write(out);
+            } catch (IOException | RuntimeException ex) {
+                Files.deleteIfExists(tmp);
+                throw ex;
+            }
+            Files.move(tmp, target);
+            job.artifact = target;
+            job.status = Status.SUCCEEDED;
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Report job {} ({}) failed", job.id, job.generator.name(), ex);
+            job.error = ex.getMessage();
+            job.status = Status.FAILED;
+        } finally {
+            job.finishedAt = clock.instant();
+        }
+    }
+
+    /**
+     * Drops finished jobs older than the retention period, and stray files left by a previous run.
+     */
+    @Scheduled(fixedDelayString = "${ducks.reports.jobs.cleanup-interval:PT5M}")
+    public void cleanup() {
+        Instant cutoff = clock.instant().minus(retention);
+        jobs.values().removeIf(job -> {
+            if (job.finishedAt == null || job.finishedAt.isAfter(cutoff)) {
+                return false;
+            }
+            deleteQuietly(job.artifact);
+            return true;
+        });
+
+        try (var files = Files.list(artifactDir)) {
+            files.filter(p -> lastModified(p).isBefore(cutoff))
+                    .filter(p -> jobs.values().stream().noneMatch(j -> p.equals(j.artifact)))
+                    .forEach(ReportJobService::deleteQuietly);
+        } catch (IOException ex) {
+            log.warn("Could not list report artifacts in {}", artifactDir, ex);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private static Instant lastModified(Path p) {
+        try {
+            return Files.getLastModifiedTime(p).toInstant();
+        } catch (IOException ex) {
+            return Instant.MAX;
+        }
+    }
+
+    private static void deleteQuietly(Path p) {
+        if (p == null) return;
+        try {
+            Files.deleteIfExists(p);
+        } catch (IOException ex) {
+            log.warn("Could not delete report artifact {}", p, ex);
+        }
+    }
+
+    public static final class Job {
+        final UUID id;
+        final ReportGenerator generator;
+        final Instant createdAt;
+        volatile Status status = Status.QUEUED;
+        volatile Instant startedAt;
+        volatile Instant finishedAt;
+        volatile Path artifact;
+        volatile String error;
+
+        Job(UUID id, ReportGenerator generator, Instant createdAt) {
+            this.id = id;
+            this.generator = generator;
+            this.createdAt = createdAt;
+        }
+
+        public UUID id() { return id; }
+        public ReportGenerator generator() { return generator; }
+        public Status status() { return status; }
+        public Instant createdAt() { return createdAt; }
+        public Instant startedAt() { return startedAt; }
+        public Instant finishedAt() { return finishedAt; }
+        public Path artifact() { return artifact; }
+        public String error() { return error; }
+    }
+}
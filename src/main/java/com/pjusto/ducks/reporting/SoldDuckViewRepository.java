@@ -1,5 +1,38 @@
 package com.pjusto.ducks.reporting;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
-public interface SoldDuckViewRepository extends JpaRepository<SoldDuckView, Long> {}
+import java.time.Instant;
+import java.util.List;
+
+public interface SoldDuckViewRepository extends JpaRepository<SoldDuckView, Long> {
+
+    List<SoldDuckView> findBySaleDateGreaterThanEqual(Instant since);
+
+    /**
+     * Everything the duck report depends on: the {@code report_change} counters bumped by triggers on every
+     * write to ducks, customers and sales (V8), when each was last bumped (epoch microseconds), and the sold
+     * row count that the incremental reload checks its result against, kept by the same triggers (V9) so that
+     * this never has to count {@code sale_item}.
+     */
+    @Query(nativeQuery = true, value = """
+        select cast(coalesce(sum(changes) filter (where source = 'duck'), 0) as bigint) as duckChanges,
+               cast(coalesce(sum(changes) filter (where source = 'customer'), 0) as bigint) as customerChanges,
+               cast(coalesce(sum(changes) filter (where source = 'sale'), 0) as bigint) as saleChanges,
+               coalesce(cast(extract(epoch from max(changed_at)) * 1000000 as bigint), 0) as modified,
+               coalesce(cast(extract(epoch from max(changed_at) filter (where source = 'sale')) * 1000000 as bigint), 0) as saleModified,
+               cast(coalesce(sum(sold) filter (where source = 'sale'), 0) as bigint) as soldCount
+        from report_change
+        """)
+    ReportVersionRow currentVersion();
+
+    interface ReportVersionRow {
+        Long getDuckChanges();
+        Long getCustomerChanges();
+        Long getSaleChanges();
+        Long getModified();
+        Long getSaleModified();
+        Long getSoldCount();
+    }
+}
@@ -26,7 +26,8 @@ import java.time.Instant;
 @Setter
 public class Sale {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sale_id_seq")
+    @SequenceGenerator(name = "sale_id_seq", sequenceName = "sale_id_seq", allocationSize = 50)
     private Long id;
 
     @NotNull
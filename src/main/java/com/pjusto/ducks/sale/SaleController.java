@@ -1,24 +1,35 @@
 package com.pjusto.ducks.sale;
 
+import com.pjusto.ducks.cache.EntityType;
+import com.pjusto.ducks.cache.InvalidationBus;
 import com.pjusto.ducks.customer.Customer;
 import com.pjusto.ducks.customer.CustomerRepository;
 import com.pjusto.ducks.duck.Duck;
 import com.pjusto.ducks.duck.DuckRepository;
 import com.pjusto.ducks.employee.Employee;
 import com.pjusto.ducks.employee.EmployeeRepository;
+import com.pjusto.ducks.export.ExportFormat;
+import com.pjusto.ducks.export.ExportWriter;
+import com.pjusto.ducks.pagination.KeysetCursor;
+import com.pjusto.ducks.pagination.KeysetSlice;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.Nullable;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.math.BigDecimal;
@@ -31,95 +42,134 @@ import java.util.stream.Collectors;
 @RequestMapping("/sales")
 public class SaleController {
 
+    private static final Sort SALE_ORDER = Sort.by(Sort.Direction.DESC, "saleDate", "id");
+    private static final int MAX_BATCH_SIZE = 500;
+
     private final SaleRepository saleRepository;
     private final SaleItemRepository saleItemRepository;
     private final CustomerRepository customerRepository;
     private final EmployeeRepository employeeRepository;
     private final DuckRepository duckRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate tx;
+    private final TransactionTemplate readOnlyTx;
+    private final InvalidationBus invalidationBus;
+    private final ObjectMapper objectMapper;
 
     public SaleController(
             SaleRepository saleRepository,
             SaleItemRepository saleItemRepository,
             CustomerRepository customerRepository,
             EmployeeRepository employeeRepository,
-            DuckRepository duckRepository
+            DuckRepository duckRepository,
+            ApplicationEventPublisher eventPublisher,
+            PlatformTransactionManager transactionManager,
+            InvalidationBus invalidationBus,
+            ObjectMapper objectMapper
     ) {
         this.saleRepository = saleRepository;
         this.saleItemRepository = saleItemRepository;
         this.customerRepository = customerRepository;
         this.employeeRepository = employeeRepository;
         this.duckRepository = duckRepository;
+        this.eventPublisher = eventPublisher;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.invalidationBus = invalidationBus;
+        this.objectMapper = objectMapper;
     }
 
+    /**
+     * Checkout path kept to as few round trips as possible: one combined query validates customer,
+     * employee and ducks, reads the duck prices and does the sold-check; entities are then referenced
+     * by id without loading them, and the sale, its items and the rollup upsert go out in one flush,
+     * with the item inserts batched. Phase durations are reported in a {@code Server-Timing} header;
+     * the commit happens after the handler returns and is not included.
+     */
     @PostMapping
     @Transactional
     public ResponseEntity<SaleResponse> create(@Valid @RequestBody SaleCreateRequest req) {
-        Customer customer = customerRepository.findById(req.customerId())
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST,
-                        "Customer not found: id=" + req.customerId()));
-
-        Employee employee = employeeRepository.findById(req.employeeId())
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST,
-                        "Employee not found: id=" + req.employeeId()));
+        long started = System.nanoTime();
 
         Set<Long> uniqueDuckIds = new LinkedHashSet<>(req.duckIds());
         if (uniqueDuckIds.isEmpty()) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "duckIds must be non-empty");
         }
 
-        List<Duck> ducks = duckRepository.findAllById(uniqueDuckIds);
-        if (ducks.size() != uniqueDuckIds.size()) {
-            Set<Long> found = ducks.stream().map(Duck::getId).collect(Collectors.toSet());
-            List<Long> missing = uniqueDuckIds.stream().filter(id -> !found.contains(id)).toList();
+        List<SaleRepository.CheckoutRow> rows = saleRepository.loadCheckout(req.customerId(), req.employeeId(), uniqueDuckIds);
+        SaleRepository.CheckoutRow head = rows.get(0);
+        if (head.getCustomerId() == null) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
-                    "Some ducks were not found: " + missing);
+                    "Customer not found: id=" + req.customerId());
+        }
+        if (head.getEmployeeId() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Employee not found: id=" + req.employeeId());
         }
 
-        var existing = saleItemRepository.findByDuck_IdIn(uniqueDuckIds);
-        if (!existing.isEmpty()) {
-            List<Long> soldDuckIds = existing.stream()
-                    .map(si -> si.getDuck().getId())
-                    .distinct()
-                    .toList();
+        Map<Long, BigDecimal> priceByDuckId = new HashMap<>();
+        List<Long> soldDuckIds = new ArrayList<>();
+        for (SaleRepository.CheckoutRow row : rows) {
+            if (row.getDuckId() == null) continue;
+            priceByDuckId.put(row.getDuckId(), row.getDuckPrice());
+            if (row.getSoldItemId() != null) soldDuckIds.add(row.getDuckId());
+        }
+        if (priceByDuckId.size() != uniqueDuckIds.size()) {
+            List<Long> missing = uniqueDuckIds.stream().filter(id -> !priceByDuckId.containsKey(id)).toList();
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Some ducks were not found: " + missing);
+        }
+        if (!soldDuckIds.isEmpty()) {
             throw new ResponseStatusException(HttpStatus.CONFLICT,
                     "Some ducks are already sold: " + soldDuckIds);
         }
+        long loaded = System.nanoTime();
 
-        BigDecimal totalBefore = ducks.stream()
-                .map(Duck::getPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        boolean hasDiscount = customer.getHasSalesDiscount();
-        BigDecimal factor = hasDiscount ? new BigDecimal("0.80") : BigDecimal.ONE;
-        List<BigDecimal> itemPrices = ducks.stream()
-                .map(d -> d.getPrice().multiply(factor).setScale(2, java.math.RoundingMode.HALF_UP))
-                .toList();
-
-        BigDecimal totalAfter = itemPrices.stream()
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        List<Long> duckIds = List.copyOf(uniqueDuckIds);
+        SalePricing.Priced priced = SalePricing.priceOf(
+                duckIds.stream().map(priceByDuckId::get).toList(),
+                head.getHasSalesDiscount()
+        );
+        BigDecimal totalAfter = priced.totalAfter();
+        long pricedAt = System.nanoTime();
 
         Sale sale = new Sale();
-        sale.setCustomer(customer);
-        sale.setEmployee(employee);
-        sale.setTotalBeforeDiscount(totalBefore);
+        sale.setCustomer(customerRepository.getReferenceById(head.getCustomerId()));
+        sale.setEmployee(employeeRepository.getReferenceById(head.getEmployeeId()));
+        sale.setTotalBeforeDiscount(priced.totalBefore());
         sale.setTotalAfterDiscount(totalAfter);
         sale.setSaleDate(Instant.now());
 
         try {
             Sale saved = saleRepository.save(sale);
 
-            List<SaleItem> items = new ArrayList<>(ducks.size());
-            for (int i = 0; i < ducks.size(); i++) {
-                Duck duck = ducks.get(i);
+            List<SaleItem> items = new ArrayList<>(duckIds.size());
+            for (int i = 0; i < duckIds.size(); i++) {
                 SaleItem si = new SaleItem();
                 si.setSale(saved);
-                si.setDuck(duck);
-                si.setPriceAtSale(itemPrices.get(i));
+                si.setDuck(duckRepository.getReferenceById(duckIds.get(i)));
+                si.setPriceAtSale(priced.itemPrices().get(i));
                 items.add(si);
             }
 
             saleItemRepository.saveAll(items);
+            saleRepository.addToDailyEmployeeRollup(
+                    saved.getSaleDate().atZone(ZoneOffset.UTC).toLocalDate(),
+                    head.getEmployeeId(),
+                    1,
+                    totalAfter
+            );
             saleItemRepository.flush();
+            long written = System.nanoTime();
+            invalidationBus.publish(EntityType.SALE, saved.getId());
+            eventPublisher.publishEvent(new SaleCreatedEvent(
+                    saved.getId(),
+                    head.getEmployeeId(),
+                    head.getEmployeeName(),
+                    saved.getSaleDate(),
+                    totalAfter
+            ));
 
             URI location = ServletUriComponentsBuilder
                     .fromCurrentRequest()
@@ -127,7 +177,9 @@ public class SaleController {
                     .buildAndExpand(saved.getId())
                     .toUri();
 
-            return ResponseEntity.created(location).body(toResponse(saved));
+            return ResponseEntity.created(location)
+                    .header("Server-Timing", serverTiming(started, loaded, pricedAt, written))
+                    .body(toResponse(saved));
         } catch (org.springframework.dao.DataIntegrityViolationException ex) {
             throw new ResponseStatusException(
                     HttpStatus.CONFLICT,
@@ -137,6 +189,160 @@ public class SaleController {
         }
     }
 
+    private static String serverTiming(long started, long loaded, long priced, long written) {
+        return String.format(Locale.ROOT, "load;dur=%.2f, price;dur=%.2f, write;dur=%.2f",
+                (loaded - started) / 1e6, (priced - loaded) / 1e6, (written - priced) / 1e6);
+    }
+
+    /**
+     * Creates many sales at once, e.g. when a terminal replays sales queued while offline.
+     * <p>
+     * Customers, employees, ducks and already-sold ducks are prefetched for the whole batch with one
+     * {@code IN} query each; every sale is then validated and priced in memory and the accepted ones are
+     * written together with batched inserts. Each sale gets its own result: a rejected sale does not stop
+     * the others, and a duck listed by two sales goes to the first one. If a concurrent checkout sells one
+     * of the ducks before the batch commits, the batch is retried one sale per transaction so only the
+     * sales that lost the race fail.
+     */
+    @PostMapping("/batch")
+    public SaleBatchResponse createBatch(@Valid @RequestBody SaleBatchRequest req) {
+        if (req.sales().size() > MAX_BATCH_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "A batch can have at most " + MAX_BATCH_SIZE + " sales");
+        }
+
+        List<SaleBatchResult> results;
+        try {
+            results = tx.execute(status -> writeBatch(req.sales(), 0));
+        } catch (DataIntegrityViolationException ex) {
+            results = new ArrayList<>(req.sales().size());
+            for (int i = 0; i < req.sales().size(); i++) {
+                int index = i;
+                try {
+                    results.addAll(tx.execute(status -> writeBatch(List.of(req.sales().get(index)), index)));
+                } catch (DataIntegrityViolationException conflict) {
+                    results.add(SaleBatchResult.rejected(index, HttpStatus.CONFLICT, "Some ducks are already sold"));
+                }
+            }
+        }
+
+        int created = (int) results.stream().filter(r -> r.sale() != null).count();
+        return new SaleBatchResponse(created, results.size() - created, results);
+    }
+
+    /**
+     * Validates, prices and inserts {@code sales} in the current transaction.
+     *
+     * @param firstIndex position of {@code sales.get(0)} in the original request, used in the results
+     */
+    private List<SaleBatchResult> writeBatch(List<SaleCreateRequest> sales, int firstIndex) {
+        Set<Long> customerIds = new HashSet<>();
+        Set<Long> employeeIds = new HashSet<>();
+        Set<Long> duckIds = new HashSet<>();
+        for (SaleCreateRequest s : sales) {
+            if (s.customerId() != null) customerIds.add(s.customerId());
+            if (s.employeeId() != null) employeeIds.add(s.employeeId());
+            if (s.duckIds() != null) s.duckIds().stream().filter(Objects::nonNull).forEach(duckIds::add);
+        }
+
+        Map<Long, Customer> customers = customerRepository.findAllById(customerIds).stream()
+                .collect(Collectors.toMap(Customer::getId, c -> c));
+        Map<Long, Employee> employees = employeeRepository.findAllById(employeeIds).stream()
+                .collect(Collectors.toMap(Employee::getId, e -> e));
+        Map<Long, Duck> ducks = duckRepository.findAllById(duckIds).stream()
+                .collect(Collectors.toMap(Duck::getId, d -> d));
+        // sold before this batch, or taken by an earlier sale of it
+        Set<Long> unavailable = duckIds.isEmpty()
+                ? new HashSet<>()
+                : new HashSet<>(saleItemRepository.findSoldDuckIds(duckIds));
+
+        SaleBatchResult[] results = new SaleBatchResult[sales.size()];
+        List<Sale> newSales = new ArrayList<>();
+        List<Integer> newSalePositions = new ArrayList<>();
+        List<SaleItem> newItems = new ArrayList<>();
+        Map<RollupKey, RollupTotal> rollup = new HashMap<>();
+        Instant now = Instant.now();
+
+        for (int i = 0; i < sales.size(); i++) {
+            SaleCreateRequest s = sales.get(i);
+            int index = firstIndex + i;
+
+            Customer customer = (s.customerId() != null) ? customers.get(s.customerId()) : null;
+            if (customer == null) {
+                results[i] = SaleBatchResult.rejected(index, HttpStatus.BAD_REQUEST, "Customer not found: id=" + s.customerId());
+                continue;
+            }
+            Employee employee = (s.employeeId() != null) ? employees.get(s.employeeId()) : null;
+            if (employee == null) {
+                results[i] = SaleBatchResult.rejected(index, HttpStatus.BAD_REQUEST, "Employee not found: id=" + s.employeeId());
+                continue;
+            }
+            Set<Long> uniqueDuckIds = (s.duckIds() != null) ? new LinkedHashSet<>(s.duckIds()) : Set.of();
+            if (uniqueDuckIds.isEmpty()) {
+                results[i] = SaleBatchResult.rejected(index, HttpStatus.BAD_REQUEST, "duckIds must be non-empty");
+                continue;
+            }
+            List<Long> missing = uniqueDuckIds.stream().filter(id -> id == null || !ducks.containsKey(id)).toList();
+            if (!missing.isEmpty()) {
+                results[i] = SaleBatchResult.rejected(index, HttpStatus.BAD_REQUEST, "Some ducks were not found: " + missing);
+                continue;
+            }
+            List<Long> sold = uniqueDuckIds.stream().filter(unavailable::contains).toList();
+            if (!sold.isEmpty()) {
+                results[i] = SaleBatchResult.rejected(index, HttpStatus.CONFLICT, "Some ducks are already sold: " + sold);
+                continue;
+            }
+
+            List<Duck> saleDucks = uniqueDuckIds.stream().map(ducks::get).toList();
+            SalePricing.Priced priced = SalePricing.price(saleDucks, customer.getHasSalesDiscount());
+
+            Sale sale = new Sale();
+            sale.setCustomer(customer);
+            sale.setEmployee(employee);
+            sale.setTotalBeforeDiscount(priced.totalBefore());
+            sale.setTotalAfterDiscount(priced.totalAfter());
+            sale.setSaleDate(now);
+            newSales.add(sale);
+            newSalePositions.add(i);
+
+            for (int d = 0; d < saleDucks.size(); d++) {
+                SaleItem si = new SaleItem();
+                si.setSale(sale);
+                si.setDuck(saleDucks.get(d));
+                si.setPriceAtSale(priced.itemPrices().get(d));
+                newItems.add(si);
+            }
+            unavailable.addAll(uniqueDuckIds);
+            rollup.merge(
+                    new RollupKey(now.atZone(ZoneOffset.UTC).toLocalDate(), employee.getId()),
+                    new RollupTotal(1, priced.totalAfter()),
+                    RollupTotal::plus
+            );
+        }
+
+        if (!newSales.isEmpty()) {
+            saleRepository.saveAll(newSales);
+            saleItemRepository.saveAll(newItems);
+            rollup.forEach((key, total) -> saleRepository.addToDailyEmployeeRollup(
+                    key.day(), key.employeeId(), total.saleCount(), total.revenue()));
+            saleItemRepository.flush();
+            invalidationBus.publish(EntityType.SALE, newSales.stream().mapToLong(Sale::getId).toArray());
+        }
+
+        for (int n = 0; n < newSales.size(); n++) {
+            Sale sale = newSales.get(n);
+            int i = newSalePositions.get(n);
+            eventPublisher.publishEvent(new SaleCreatedEvent(
+                    sale.getId(),
+                    sale.getEmployee().getId(),
+                    sale.getEmployee().getName(),
+                    sale.getSaleDate(),
+                    sale.getTotalAfterDiscount()
+            ));
+            results[i] = SaleBatchResult.created(firstIndex + i, toResponse(sale));
+        }
+        return Arrays.asList(results);
+    }
 
     @GetMapping("/{id}")
     public SaleResponse getById(@PathVariable Long id) {
@@ -154,17 +360,86 @@ public class SaleController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size
     ) {
-        Instant fromInstant = null;
-        Instant toInstantExclusive = null;
+        Page<Sale> pageResult = saleRepository.findAll(
+                filterSpec(from, to, customerId, employeeId),
+                PageRequest.of(page, size, SALE_ORDER)
+        );
 
-        if (StringUtils.hasText(from)) {
-            fromInstant = parseDateOrBadRequest(from).atStartOfDay(ZoneOffset.UTC).toInstant();
-        }
-        if (StringUtils.hasText(to)) {
-            toInstantExclusive = parseDateOrBadRequest(to).plusDays(1)
-                    .atStartOfDay(ZoneOffset.UTC).toInstant();
+        return pageResult.map(SaleController::toResponse);
+    }
+
+    /**
+     * Keyset variant of {@link #list}: selected by the presence of {@code after} (empty for the first slice).
+     * The token carries {@code (saleDate, id)} of the last row; the seek predicate is written as
+     * {@code saleDate <= :d and (saleDate < :d or id < :id)} so it stays a range scan on {@code idx_sale_date}.
+     * One extra row is fetched to detect a next slice instead of running a count query.
+     */
+    @GetMapping(params = "after")
+    public KeysetSlice<SaleResponse> listAfter(
+            @RequestParam(required = false) @Nullable String from,
+            @RequestParam(required = false) @Nullable String to,
+            @RequestParam(required = false) @Nullable Long customerId,
+            @RequestParam(required = false) @Nullable Long employeeId,
+            @RequestParam String after,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        Pageable pageable = PageRequest.ofSize(size);
+        Specification<Sale> spec = filterSpec(from, to, customerId, employeeId);
+
+        KeysetCursor.InstantAndId cursor = KeysetCursor.decodeInstantAndId(after);
+        if (cursor != null) {
+            spec = spec.and((root, query, cb) -> cb.and(
+                    cb.lessThanOrEqualTo(root.get("saleDate"), cursor.at()),
+                    cb.or(
+                            cb.lessThan(root.get("saleDate"), cursor.at()),
+                            cb.lessThan(root.get("id"), cursor.id())
+                    )
+            ));
         }
 
+        List<Sale> rows = saleRepository.findBy(spec, q -> q.sortBy(SALE_ORDER).limit(size + 1).all());
+        boolean hasNext = rows.size() > size;
+        Slice<Sale> slice = new SliceImpl<>(hasNext ? rows.subList(0, size) : rows, pageable, hasNext);
+
+        return KeysetSlice.of(slice, SaleController::toResponse,
+                sale -> KeysetCursor.ofInstantAndId(sale.getSaleDate(), sale.getId()));
+    }
+
+    /**
+     * Full export with the {@link #list} filters, for clients that would otherwise walk every page.
+     * Rows are read through a JDBC cursor and written as they arrive, so neither the query nor the
+     * response grows with the result, and there is no OFFSET to rescan.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(required = false) @Nullable String from,
+            @RequestParam(required = false) @Nullable String to,
+            @RequestParam(required = false) @Nullable Long customerId,
+            @RequestParam(required = false) @Nullable Long employeeId,
+            @RequestParam(defaultValue = "ndjson") String format
+    ) {
+        ExportFormat exportFormat = ExportFormat.of(format);
+        Instant start = startOf(from);
+        Instant endExclusive = endExclusiveOf(to);
+
+        return ExportWriter.response(exportFormat, "sales", SaleResponse.class, objectMapper, readOnlyTx,
+                () -> saleRepository.streamForExport(
+                                (start != null) ? start : SaleRepository.MIN_SALE_DATE,
+                                (endExclusive != null) ? endExclusive : SaleRepository.MAX_SALE_DATE,
+                                customerId,
+                                employeeId)
+                        .map(SaleController::toResponse));
+    }
+
+    private static Specification<Sale> filterSpec(
+            @Nullable String from,
+            @Nullable String to,
+            @Nullable Long customerId,
+            @Nullable Long employeeId
+    ) {
+        Instant fromInstant = startOf(from);
+        Instant toInstantExclusive = endExclusiveOf(to);
+
         Specification<Sale> spec = Specification.where(null);
 
         if (fromInstant != null) {
@@ -182,12 +457,34 @@ public class SaleController {
             spec = spec.and((root, query, cb) -> cb.equal(root.get("employee").get("id"), employeeId));
         }
 
-        Page<Sale> pageResult = saleRepository.findAll(
-                spec,
-                PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "saleDate", "id"))
-        );
+        return spec;
+    }
 
-        return pageResult.map(SaleController::toResponse);
+    @Nullable
+    private static Instant startOf(@Nullable String from) {
+        return StringUtils.hasText(from)
+                ? parseDateOrBadRequest(from).atStartOfDay(ZoneOffset.UTC).toInstant()
+                : null;
+    }
+
+    @Nullable
+    private static Instant endExclusiveOf(@Nullable String to) {
+        return StringUtils.hasText(to)
+                ? parseDateOrBadRequest(to).plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant()
+                : null;
+    }
+
+    private static SaleResponse toResponse(SaleRepository.SaleExportRow row) {
+        return new SaleResponse(
+                row.getId(),
+                row.getTotalBeforeDiscount(),
+                row.getTotalAfterDiscount(),
+                row.getCustomerId(),
+                row.getEmployeeId(),
+                row.getSaleDate(),
+                row.getCreatedAt(),
+                row.getUpdatedAt()
+        );
     }
 
     private static SaleResponse toResponse(Sale s) {
@@ -225,6 +522,45 @@ public class SaleController {
     ) {
     }
 
+    public record SaleBatchRequest(
+            @NotEmpty List<SaleCreateRequest> sales
+    ) {
+    }
+
+    public record SaleBatchResponse(
+            int created,
+            int rejected,
+            List<SaleBatchResult> results
+    ) {
+    }
+
+    /**
+     * Outcome of one sale of a batch; {@code sale} is set when it was created, {@code error} otherwise.
+     */
+    public record SaleBatchResult(
+            int index,
+            int status,
+            SaleResponse sale,
+            String error
+    ) {
+        static SaleBatchResult created(int index, SaleResponse sale) {
+            return new SaleBatchResult(index, HttpStatus.CREATED.value(), sale, null);
+        }
+
+        static SaleBatchResult rejected(int index, HttpStatus status, String error) {
+            return new SaleBatchResult(index, status.value(), null, error);
+        }
+    }
+
+    private record RollupKey(LocalDate day, Long employeeId) {
+    }
+
+    private record RollupTotal(long saleCount, BigDecimal revenue) {
+        RollupTotal plus(RollupTotal other) {
+            return new RollupTotal(saleCount + other.saleCount, revenue.add(other.revenue));
+        }
+    }
+
     public record SaleResponse(
             Long id,
             BigDecimal totalBeforeDiscount,
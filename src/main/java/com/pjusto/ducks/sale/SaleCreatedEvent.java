@@ -0,0 +1,17 @@
+package com.pjusto.ducks.sale;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Published inside the transaction that inserts a sale; listeners that keep derived state should
+ * subscribe with {@code @TransactionalEventListener} so they only see committed sales.
+ */
+public record SaleCreatedEvent(
+        Long saleId,
+        Long employeeId,
+        String employeeName,
+        Instant saleDate,
+        BigDecimal totalAfterDiscount
+) {
+}
@@ -8,12 +8,17 @@ import lombok.Getter;
 import lombok.Setter;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 
 @Entity
 @Table(
         name = "sale_item",
         uniqueConstraints = {
                 @UniqueConstraint(name = "uq_saleitem_duck", columnNames = "duck_id")
+        },
+        indexes = {
+                @Index(name = "idx_sale_item_sale", columnList = "sale_id,sale_date"),
+                @Index(name = "idx_sale_item_sale_date", columnList = "sale_date,id")
         }
 )
 @Getter
@@ -21,7 +26,8 @@ import java.math.BigDecimal;
 public class SaleItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sale_item_id_seq")
+    @SequenceGenerator(name = "sale_item_id_seq", sequenceName = "sale_item_id_seq", allocationSize = 50)
     private Long id;
 
     @NotNull
@@ -37,6 +43,14 @@ public class SaleItem {
     )
     private Sale sale;
 
+    /**
+     * Copy of {@code sale.saleDate}: {@code sale} is partitioned by date, so the foreign key is
+     * {@code (sale_id, sale_date)}. Taken from {@link #sale} on persist.
+     */
+    @NotNull
+    @Column(name = "sale_date", nullable = false)
+    private Instant saleDate;
+
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(
             name = "duck_id",
@@ -44,4 +58,11 @@ public class SaleItem {
             foreignKey = @ForeignKey(name = "fk_sale_item_duck")
     )
     private Duck duck;
+
+    @PrePersist
+    void prePersist() {
+        if (this.sale != null) {
+            this.saleDate = this.sale.getSaleDate();
+        }
+    }
 }
@@ -1,23 +1,120 @@
 package com.pjusto.ducks.sale;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
+/**
+ * Sold-duck queries filter and order by {@code sale_item.sale_date} (served by {@code idx_sale_item_sale_date})
+ * and join {@code sale} on both key columns, so the date range also prunes {@code sale} partitions. Callers pass
+ * {@link SaleRepository#MIN_SALE_DATE} / {@link SaleRepository#MAX_SALE_DATE} for open ends.
+ */
 public interface SaleItemRepository extends JpaRepository<SaleItem, Long> {
-    List<SaleItem> findByDuck_IdIn(Collection<Long> duckIds);
 
-    Page<SaleItem> findBySale_SaleDateGreaterThanEqualAndSale_SaleDateLessThan(
-            Instant fromInclusive,
-            Instant toExclusive,
+    @Query("select si.duck.id from SaleItem si where si.duck.id in :duckIds")
+    List<Long> findSoldDuckIds(@Param("duckIds") Collection<Long> duckIds);
+
+    @Query(value = """
+        select si.id as saleItemId,
+               d.id as duckId,
+               d.name as duckName,
+               c.name as customerName,
+               si.saleDate as saleDate,
+               si.priceAtSale as priceAtSale
+        from SaleItem si
+          join si.duck d
+          join si.sale s
+          join s.customer c
+        where si.saleDate >= :start
+          and si.saleDate < :endExclusive
+          and s.saleDate = si.saleDate
+        order by si.saleDate desc, si.id desc
+        """,
+            countQuery = """
+        select count(si)
+        from SaleItem si
+        where si.saleDate >= :start
+          and si.saleDate < :endExclusive
+        """)
+    Page<SoldDuckRow> findSoldDucks(
+            @Param("start") Instant start,
+            @Param("endExclusive") Instant endExclusive,
             Pageable pageable
     );
 
-    Page<SaleItem> findBySale_SaleDateGreaterThanEqual(Instant fromInclusive, Pageable pageable);
+    @Query("""
+        select si.id as saleItemId,
+               d.id as duckId,
+               d.name as duckName,
+               c.name as customerName,
+               si.saleDate as saleDate,
+               si.priceAtSale as priceAtSale
+        from SaleItem si
+          join si.duck d
+          join si.sale s
+          join s.customer c
+        where si.saleDate >= :start
+          and si.saleDate < :endExclusive
+          and s.saleDate = si.saleDate
+          and (:afterDate is null
+               or (si.saleDate <= :afterDate and (si.saleDate < :afterDate or si.id < :afterId)))
+        order by si.saleDate desc, si.id desc
+        """)
+    Slice<SoldDuckRow> findSoldDucksAfter(
+            @Param("start") Instant start,
+            @Param("endExclusive") Instant endExclusive,
+            @Param("afterDate") Instant afterDate,
+            @Param("afterId") Long afterId,
+            Pageable pageable
+    );
+
+    /**
+     * Unpaged {@link #findSoldDucks} read through a server-side cursor; must be consumed and closed
+     * inside a transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = SaleRepository.EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+        select si.id as saleItemId,
+               d.id as duckId,
+               d.name as duckName,
+               c.name as customerName,
+               si.saleDate as saleDate,
+               si.priceAtSale as priceAtSale
+        from SaleItem si
+          join si.duck d
+          join si.sale s
+          join s.customer c
+        where si.saleDate >= :start
+          and si.saleDate < :endExclusive
+          and s.saleDate = si.saleDate
+        order by si.saleDate desc, si.id desc
+        """)
+    Stream<SoldDuckRow> streamSoldDucks(
+            @Param("start") Instant start,
+            @Param("endExclusive") Instant endExclusive
+    );
 
-    Page<SaleItem> findBySale_SaleDateLessThan(Instant toExclusive, Pageable pageable);
+    interface SoldDuckRow {
+        Long getSaleItemId();
+        Long getDuckId();
+        String getDuckName();
+        String getCustomerName();
+        Instant getSaleDate();
+        BigDecimal getPriceAtSale();
+    }
 }
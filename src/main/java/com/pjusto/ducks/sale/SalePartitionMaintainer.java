@@ -0,0 +1,59 @@
+package com.pjusto.ducks.sale;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+/**
+ * Keeps monthly {@code sale} partitions created ahead of time. {@code sale} has no default partition, so a
+ * sale dated in a month without a partition would fail to insert; this runs at startup and then daily, and
+ * creates the current month plus {@code months-ahead} more. Several nodes may run it at once:
+ * {@code ensure_sale_partitions} takes an advisory lock and skips partitions that already exist.
+ */
+@Component
+public class SalePartitionMaintainer {
+
+    private static final Logger log = LoggerFactory.getLogger(SalePartitionMaintainer.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+
+    public SalePartitionMaintainer(
+            JdbcTemplate jdbcTemplate,
+            @Value("${ducks.sales.partitions.months-ahead:3}") int monthsAhead
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = monthsAhead;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        ensurePartitions();
+    }
+
+    @Scheduled(cron = "${ducks.sales.partitions.cron:0 0 3 * * *}", zone = "UTC")
+    public void ensurePartitions() {
+        LocalDate thisMonth = LocalDate.now(ZoneOffset.UTC).withDayOfMonth(1);
+        try {
+            Integer created = jdbcTemplate.queryForObject(
+                    "SELECT ensure_sale_partitions(?, ?)",
+                    Integer.class,
+                    thisMonth,
+                    thisMonth.plusMonths(monthsAhead)
+            );
+            if (created != null && created > 0) {
+                log.info("Created {} sale partitions up to {}", created, thisMonth.plusMonths(monthsAhead));
+            }
+        } catch (RuntimeException ex) {
+            log.error("Could not create sale partitions up to {}", thisMonth.plusMonths(monthsAhead), ex);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.pjusto.ducks.sale;
+
+import com.pjusto.ducks.duck.Duck;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Price of a sale from the current duck prices: customers with a sales discount pay 80%,
+ * rounded per item so the items always add up to the sale total.
+ */
+public final class SalePricing {
+
+    public static final BigDecimal DISCOUNT_FACTOR = new BigDecimal("0.80");
+
+    private SalePricing() {
+    }
+
+    static Priced price(List<Duck> ducks, boolean hasDiscount) {
+        return priceOf(ducks.stream().map(Duck::getPrice).toList(), hasDiscount);
+    }
+
+    /**
+     * @param prices current price of each duck
+     */
+    static Priced priceOf(List<BigDecimal> prices, boolean hasDiscount) {
+        BigDecimal factor = hasDiscount ? DISCOUNT_FACTOR : BigDecimal.ONE;
+
+        BigDecimal totalBefore = BigDecimal.ZERO;
+        BigDecimal totalAfter = BigDecimal.ZERO;
+        List<BigDecimal> itemPrices = new ArrayList<>(prices.size());
+        for (BigDecimal price : prices) {
+            BigDecimal itemPrice = price.multiply(factor).setScale(2, RoundingMode.HALF_UP);
+            totalBefore = totalBefore.add(price);
+            totalAfter = totalAfter.add(itemPrice);
+            itemPrices.add(itemPrice);
+        }
+        return new Priced(totalBefore, totalAfter, itemPrices);
+    }
+
+    /**
+     * @param itemPrices price at sale of each duck, in the order the prices were given
+     */
+    record Priced(BigDecimal totalBefore, BigDecimal totalAfter, List<BigDecimal> itemPrices) {
+    }
+}
@@ -1,8 +1,126 @@
 package com.pjusto.ducks.sale;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 public interface SaleRepository extends JpaRepository<Sale, Long>, JpaSpecificationExecutor<Sale> {
+
+    /**
+     * Stand-ins for an open end of a date range. {@code sale} is partitioned by {@code sale_date}, and
+     * {@code (:start is null or sale_date >= :start)} cannot be used to prune partitions in a cached
+     * generic plan; a plain range with these bounds can.
+     */
+    Instant MIN_SALE_DATE = Instant.parse("1970-01-01T00:00:00Z");
+    Instant MAX_SALE_DATE = Instant.parse("9999-01-01T00:00:00Z");
+
+    /** JDBC fetch size for the streaming export queries: rows are pulled from the server cursor this many at a time. */
+    String EXPORT_FETCH_SIZE = "1000";
+
     boolean existsByEmployee_Id(Long employeeId);
+
+    /**
+     * Everything a checkout needs to validate and price a sale, in one round trip: one row per requested
+     * duck that exists (or a single row with null duck columns if none do). Customer and employee columns
+     * are null when the ids are unknown; {@code soldItemId} is set when the duck already has a sale item.
+     */
+    @Query(nativeQuery = true, value = """
+        select c.id as customerId, c.has_sales_discount as hasSalesDiscount,
+               e.id as employeeId, e.name as employeeName,
+               d.id as duckId, d.price as duckPrice,
+               si.id as soldItemId
+        from (select 1) one
+          left join customer c on c.id = :customerId
+          left join employee e on e.id = :employeeId
+          left join duck d on d.id in (:duckIds)
+          left join sale_item si on si.duck_id = d.id
+        """)
+    List<CheckoutRow> loadCheckout(
+            @Param("customerId") Long customerId,
+            @Param("employeeId") Long employeeId,
+            @Param("duckIds") Collection<Long> duckIds
+    );
+
+    /**
+     * Adds sales to the {@code sales_daily_employee} rollup bucket of a UTC day; must run in the
+     * transaction that inserts the sales so the rollup never drifts from the raw rows.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+        INSERT INTO sales_daily_employee (day, employee_id, sale_count, revenue)
+        VALUES (:day, :employeeId, :saleCount, :revenue)
+        ON CONFLICT (day, employee_id) DO UPDATE
+           SET sale_count = sales_daily_employee.sale_count + EXCLUDED.sale_count,
+               revenue    = sales_daily_employee.revenue + EXCLUDED.revenue
+        """)
+    void addToDailyEmployeeRollup(
+            @Param("day") LocalDate day,
+            @Param("employeeId") Long employeeId,
+            @Param("saleCount") long saleCount,
+            @Param("revenue") BigDecimal revenue
+    );
+
+    /**
+     * Sales matching the {@code GET /sales} filters, newest first, read through a server-side cursor;
+     * must be consumed and closed inside a transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+        select s.id as id,
+               s.totalBeforeDiscount as totalBeforeDiscount,
+               s.totalAfterDiscount as totalAfterDiscount,
+               s.customer.id as customerId,
+               s.employee.id as employeeId,
+               s.saleDate as saleDate,
+               s.createdAt as createdAt,
+               s.updatedAt as updatedAt
+        from Sale s
+        where s.saleDate >= :start
+          and s.saleDate < :endExclusive
+          and (:customerId is null or s.customer.id = :customerId)
+          and (:employeeId is null or s.employee.id = :employeeId)
+        order by s.saleDate desc, s.id desc
+        """)
+    Stream<SaleExportRow> streamForExport(
+            @Param("start") Instant start,
+            @Param("endExclusive") Instant endExclusive,
+            @Param("customerId") Long customerId,
+            @Param("employeeId") Long employeeId
+    );
+
+    interface SaleExportRow {
+        Long getId();
+        BigDecimal getTotalBeforeDiscount();
+        BigDecimal getTotalAfterDiscount();
+        Long getCustomerId();
+        Long getEmployeeId();
+        Instant getSaleDate();
+        Instant getCreatedAt();
+        Instant getUpdatedAt();
+    }
+
+    interface CheckoutRow {
+        Long getCustomerId();
+        Boolean getHasSalesDiscount();
+        Long getEmployeeId();
+        String getEmployeeName();
+        Long getDuckId();
+        BigDecimal getDuckPrice();
+        Long getSoldItemId();
+    }
 }
@@ -0,0 +1,28 @@
+package com.pjusto.ducks.search;
+
+import java.util.Locale;
+
+/**
+ * Builds {@code LIKE} patterns for the name filters. Queries using them must compare against
+ * {@code lower(name)}, which is the expression the trigram indexes are built on, and declare
+ * {@code escape '!'} so that {@code %} and {@code _} typed by a user match literally.
+ */
+public final class LikePattern {
+
+    private LikePattern() {
+    }
+
+    /**
+     * {@code %term%}, lower-cased and escaped.
+     */
+    public static String contains(String term) {
+        String lower = term.toLowerCase(Locale.ROOT);
+        StringBuilder sb = new StringBuilder(lower.length() + 2).append('%');
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            if (c == '!' || c == '%' || c == '_') sb.append('!');
+            sb.append(c);
+        }
+        return sb.append('%').toString();
+    }
+}
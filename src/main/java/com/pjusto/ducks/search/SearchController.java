@@ -0,0 +1,80 @@
+package com.pjusto.ducks.search;
+
+import com.pjusto.ducks.cache.EntityType;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/search")
+public class SearchController {
+
+    private static final int MAX_LIMIT = 100;
+    /** A single character would match a word prefix in a large share of all rows. */
+    private static final int MIN_QUERY_LENGTH = 2;
+
+    private final SearchIndex searchIndex;
+
+    public SearchController(SearchIndex searchIndex) {
+        this.searchIndex = searchIndex;
+    }
+
+    /**
+     * Search-as-you-type over duck, customer and employee names plus employee CPF and code. Words of three
+     * or more characters match anywhere in a field, shorter ones match the start of a word; every word must
+     * match the same field. Exact and prefix matches rank first.
+     */
+    @GetMapping
+    public SearchResponse search(
+            @RequestParam String q,
+            @RequestParam(required = false) @Nullable List<EntityType> type,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        if (!StringUtils.hasText(q) || q.strip().length() < MIN_QUERY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "q must have at least " + MIN_QUERY_LENGTH + " characters");
+        }
+        if (limit <= 0 || limit > MAX_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + MAX_LIMIT);
+        }
+        Set<EntityType> types = (type == null || type.isEmpty()) ? Set.of() : EnumSet.copyOf(type);
+        if (types.contains(EntityType.SALE)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Sales are not searchable");
+        }
+
+        long started = System.nanoTime();
+        List<SearchIndex.Hit> hits = searchIndex.search(q, types, limit);
+        long tookMicros = (System.nanoTime() - started) / 1_000;
+
+        return new SearchResponse(
+                q,
+                tookMicros,
+                hits.stream()
+                        .map(h -> new SearchHit(h.type(), h.id(), h.label(), h.field(), h.value(), h.score()))
+                        .toList()
+        );
+    }
+
+    public record SearchResponse(
+            String query,
+            long tookMicros,
+            List<SearchHit> hits
+    ) {
+    }
+
+    public record SearchHit(
+            EntityType type,
+            long id,
+            String name,
+            String matchedField,
+            String matchedValue,
+            double score
+    ) {
+    }
+}
@@ -0,0 +1,261 @@
+package com.pjusto.ducks.search;
+
+import com.pjusto.ducks.cache.EntityInvalidatedEvent;
+import com.pjusto.ducks.cache.EntityType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Name search across ducks, customers and employees, served from a {@link TrigramIndex} in memory.
+ * <p>
+ * Indexed fields are {@code Duck.name}, {@code Customer.name} and {@code Employee.name}, {@code cpf} and
+ * {@code employee_code}. The index is loaded once at startup and then updated by the controllers after each
+ * committed write, and from {@link EntityInvalidatedEvent}s for writes made on other nodes.
+ */
+@Component
+public class SearchIndex implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchIndex.class);
+
+    private static final Map<EntityType, String[]> FIELDS = new EnumMap<>(Map.of(
+            EntityType.DUCK, new String[]{"name"},
+            EntityType.CUSTOMER, new String[]{"name"},
+            EntityType.EMPLOYEE, new String[]{"name", "cpf", "employeeCode"}
+    ));
+
+    private static final Map<EntityType, String> LOAD_SQL = new EnumMap<>(Map.of(
+            EntityType.DUCK, "SELECT id, name FROM duck",
+            EntityType.CUSTOMER, "SELECT id, name FROM customer",
+            EntityType.EMPLOYEE, "SELECT id, name, cpf, employee_code FROM employee"
+    ));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTx;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Lock reloadLock = new ReentrantLock();
+    private TrigramIndex index = new TrigramIndex();
+    /** Writes made while a reload scans, in order; {@code null} when no reload runs. Guarded by {@link #lock}. */
+    private List<Consumer<TrigramIndex>> writesDuringReload;
+
+    public SearchIndex(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        reload();
+    }
+
+    /**
+     * Rebuilds the whole index from the database. The scan runs without the lock; writes applied meanwhile
+     * are recorded and replayed onto the new index before it is swapped in, so a row written after the scan
+     * read it is not lost. Reloads run one at a time.
+     */
+    public void reload() {
+        reloadLock.lock();
+        try {
+            lock.writeLock().lock();
+            try {
+                writesDuringReload = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            TrigramIndex fresh = new TrigramIndex();
+            boolean scanned = false;
+            try {
+                // inside a transaction so the driver honours the fetch size and streams the scans
+                readOnlyTx.executeWithoutResult(status -> FIELDS.forEach((type, fields) ->
+                        jdbcTemplate.query(con -> {
+                            var ps = con.prepareStatement(LOAD_SQL.get(type));
+                            ps.setFetchSize(10_000);
+                            return ps;
+                        }, rs -> {
+                            String[] values = new String[fields.length];
+                            for (int f = 0; f < fields.length; f++) {
+                                values[f] = rs.getString(f + 2);
+                            }
+                            fresh.put(key(type, rs.getLong(1)), values);
+                        })));
+                scanned = true;
+            } finally {
+                lock.writeLock().lock();
+                try {
+                    List<Consumer<TrigramIndex>> writes = writesDuringReload;
+                    writesDuringReload = null;
+                    if (scanned) {
+                        writes.forEach(write -> write.accept(fresh));
+                        index = fresh;
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+            log.info("Search index loaded with {} documents", fresh.size());
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    /**
+     * Indexes or re-indexes a row; {@code values} follow the field order of its type
+     * (employees: name, cpf, employee code).
+     */
+    public void put(EntityType type, long id, String... values) {
+        if (values.length != fieldsOf(type).length) {
+            throw new IllegalArgumentException(type + " expects " + fieldsOf(type).length + " fields");
+        }
+        long key = key(type, id);
+        write(idx -> idx.put(key, values));
+    }
+
+    public void remove(EntityType type, long id) {
+        long key = key(type, id);
+        write(idx -> idx.remove(key));
+    }
+
+    /**
+     * Re-reads the given rows from the database: missing ones are removed, the others re-indexed.
+     * Empty {@code ids} means "anything of this type may have changed" and reloads everything.
+     */
+    public void refresh(EntityType type, long[] ids) {
+        String[] fields = fieldsOf(type);
+        if (ids.length == 0) {
+            reload();
+            return;
+        }
+        Long[] boxed = Arrays.stream(ids).boxed().toArray(Long[]::new);
+        Map<Long, String[]> rows = new HashMap<>();
+        jdbcTemplate.query(con -> {
+            var ps = con.prepareStatement(LOAD_SQL.get(type) + " WHERE id = ANY(?)");
+            ps.setArray(1, con.createArrayOf("bigint", boxed));
+            return ps;
+        }, rs -> {
+            String[] values = new String[fields.length];
+            for (int f = 0; f < fields.length; f++) {
+                values[f] = rs.getString(f + 2);
+            }
+            rows.put(rs.getLong(1), values);
+        });
+
+        write(idx -> {
+            for (long id : ids) {
+                String[] values = rows.get(id);
+                if (values == null) {
+                    idx.remove(key(type, id));
+                } else {
+                    idx.put(key(type, id), values);
+                }
+            }
+        });
+    }
+
+    /**
+     * Applies {@code write} to the live index and, while a reload is scanning, records it for replay.
+     */
+    private void write(Consumer<TrigramIndex> write) {
+        lock.writeLock().lock();
+        try {
+            write.accept(index);
+            if (writesDuringReload != null) {
+                writesDuringReload.add(write);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies changes made by other nodes; this node's own writes are applied by the controllers.
+     */
+    @EventListener
+    public void onInvalidated(EntityInvalidatedEvent event) {
+        if (event.remote() && FIELDS.containsKey(event.type())) {
+            refresh(event.type(), event.ids());
+        }
+    }
+
+    /**
+     * Best {@code limit} matches of {@code query} among the given types (all indexed types if empty).
+     */
+    public List<Hit> search(String query, Set<EntityType> types, int limit) {
+        Set<EntityType> wanted = types.isEmpty() ? FIELDS.keySet() : EnumSet.copyOf(types);
+        TrigramIndex.KeyFilter filter = wanted.containsAll(FIELDS.keySet())
+                ? TrigramIndex.KeyFilter.ALL
+                : key -> wanted.contains(typeOf(key));
+
+        List<TrigramIndex.Hit> hits;
+        lock.readLock().lock();
+        try {
+            hits = index.search(query, limit, filter);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return hits.stream()
+                .map(h -> {
+                    EntityType type = typeOf(h.key());
+                    return new Hit(type, idOf(h.key()), h.label(), FIELDS.get(type)[h.field()], h.value(), h.score());
+                })
+                .toList();
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static String[] fieldsOf(EntityType type) {
+        String[] fields = FIELDS.get(type);
+        if (fields == null) {
+            throw new IllegalArgumentException(type + " is not searchable");
+        }
+        return fields;
+    }
+
+    // entity type in the top byte, id below it; ids stay well under 2^56
+    private static long key(EntityType type, long id) {
+        return (long) (type.ordinal() + 1) << 56 | id;
+    }
+
+    private static EntityType typeOf(long key) {
+        return EntityType.values()[(int) (key >>> 56) - 1];
+    }
+
+    private static long idOf(long key) {
+        return key & ((1L << 56) - 1);
+    }
+
+    /**
+     * @param label the entity's name
+     * @param field name of the field that matched
+     * @param value the matching field's value
+     */
+    public record Hit(EntityType type, long id, String label, String field, String value, double score) {
+    }
+}
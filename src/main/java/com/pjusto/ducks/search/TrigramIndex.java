@@ -0,0 +1,394 @@
+package com.pjusto.ducks.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.regex.Pattern;
+
+/**
+ * Inverted index from character trigrams to documents, with primitive posting lists.
+ * <p>
+ * A document is a key (any non-zero long) and a few text fields. Fields are normalized (lower case,
+ * accents removed) and every word is padded the way {@code pg_trgm} does it, {@code "  word "}, so a
+ * query word of three or more characters matches as a substring and a shorter one as a word prefix.
+ * Documents get increasing ordinals, so each posting list is a sorted {@code int[]} and a query is an
+ * intersection of sorted arrays followed by a check of the candidates against the field text.
+ * <p>
+ * Removing a document only marks its ordinal dead; the index compacts itself once more than half of
+ * the ordinals are dead. Not thread-safe: {@link SearchIndex} guards it with a read/write lock.
+ */
+final class TrigramIndex {
+
+    private static final int NONE = -1;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int COMPACT_MIN_DEAD = 1024;
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private final LongIntMap ordinalByKey = new LongIntMap(INITIAL_CAPACITY);
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private String[][] values = new String[INITIAL_CAPACITY][];
+    private String[][] normalized = new String[INITIAL_CAPACITY][];
+    private int highWater;
+    private int dead;
+
+    private final LongIntMap postingByTrigram = new LongIntMap(INITIAL_CAPACITY);
+    private int[][] postings = new int[INITIAL_CAPACITY][];
+    private int[] postingSizes = new int[INITIAL_CAPACITY];
+    private int postingCount;
+
+    int size() {
+        return highWater - dead;
+    }
+
+    /**
+     * Adds a document, replacing any previous one with the same key. Null fields are stored but not indexed.
+     */
+    void put(long key, String... fields) {
+        remove(key);
+        if (highWater == keys.length) {
+            growDocuments(keys.length * 2);
+        }
+        int ordinal = highWater++;
+        keys[ordinal] = key;
+        values[ordinal] = fields.clone();
+        String[] norm = new String[fields.length];
+        for (int f = 0; f < fields.length; f++) {
+            if (fields[f] == null) continue;
+            norm[f] = normalize(fields[f]);
+            for (String word : words(norm[f])) {
+                String padded = "  " + word + " ";
+                for (int i = 0; i + 3 <= padded.length(); i++) {
+                    addPosting(trigram(padded, i), ordinal);
+                }
+            }
+        }
+        normalized[ordinal] = norm;
+        ordinalByKey.put(key, ordinal);
+    }
+
+    void remove(long key) {
+        int ordinal = ordinalByKey.get(key);
+        if (ordinal == NONE) return;
+        ordinalByKey.remove(key);
+        keys[ordinal] = 0L;
+        values[ordinal] = null;
+        normalized[ordinal] = null;
+        dead++;
+        if (dead >= COMPACT_MIN_DEAD && dead * 2 > highWater) {
+            compact();
+        }
+    }
+
+    boolean contains(long key) {
+        return ordinalByKey.get(key) != NONE;
+    }
+
+    /**
+     * Best {@code limit} documents whose fields contain every word of {@code query}, all in the same field,
+     * optionally restricted to keys accepted by {@code keyFilter}. Ordered by score, then key.
+     */
+    List<Hit> search(String query, int limit, KeyFilter keyFilter) {
+        List<String> words = words(normalize(query));
+        if (words.isEmpty() || limit <= 0) return List.of();
+
+        LongArray trigrams = new LongArray();
+        for (String word : words) {
+            String padded = (word.length() >= 3) ? word : "  " + word;
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                trigrams.add(trigram(padded, i));
+            }
+        }
+
+        int[] lists = new int[trigrams.size];
+        for (int t = 0; t < trigrams.size; t++) {
+            int p = postingByTrigram.get(trigrams.values[t]);
+            if (p == NONE) return List.of();
+            lists[t] = p;
+        }
+        Integer[] bySize = new Integer[lists.length];
+        for (int t = 0; t < lists.length; t++) bySize[t] = lists[t];
+        Arrays.sort(bySize, Comparator.comparingInt(p -> postingSizes[p]));
+
+        String[] queryWords = words.toArray(String[]::new);
+        String joined = String.join(" ", words);
+        PriorityQueue<Hit> best = new PriorityQueue<>(Hit.WORST_FIRST);
+        int[] cursors = new int[bySize.length];
+        int[] shortest = postings[bySize[0]];
+        int shortestSize = postingSizes[bySize[0]];
+
+        candidates:
+        for (int c = 0; c < shortestSize; c++) {
+            int ordinal = shortest[c];
+            if (keys[ordinal] == 0L) continue;
+            for (int t = 1; t < bySize.length; t++) {
+                int p = bySize[t];
+                int at = seek(postings[p], postingSizes[p], cursors[t], ordinal);
+                cursors[t] = at;
+                if (at == postingSizes[p]) break candidates;
+                if (postings[p][at] != ordinal) continue candidates;
+            }
+            if (!keyFilter.accept(keys[ordinal])) continue;
+
+            String[] fields = normalized[ordinal];
+            int bestField = NONE;
+            double bestScore = 0;
+            for (int f = 0; f < fields.length; f++) {
+                double score = (fields[f] != null) ? score(fields[f], joined, queryWords) : 0;
+                if (score > bestScore) {
+                    bestScore = score;
+                    bestField = f;
+                }
+            }
+            if (bestField == NONE) continue;
+            if (best.size() == limit) {
+                Hit worst = best.peek();
+                if (bestScore < worst.score() || (bestScore == worst.score() && keys[ordinal] > worst.key())) continue;
+                best.poll();
+            }
+            best.add(new Hit(keys[ordinal], bestField, values[ordinal][bestField], values[ordinal][0], bestScore));
+        }
+
+        List<Hit> hits = new ArrayList<>(best);
+        hits.sort(Hit.WORST_FIRST.reversed());
+        return hits;
+    }
+
+    /**
+     * Score of one normalized field, or 0 if it does not contain every word (trigram candidates can be
+     * false positives). Exact field matches rank above field prefixes, then word prefixes, then substrings;
+     * within a kind, the field the query covers most ranks first.
+     */
+    private static double score(String field, String joined, String[] words) {
+        double kind;
+        if (field.equals(joined)) {
+            kind = 100;
+        } else if (field.startsWith(joined)) {
+            kind = 80;
+        } else {
+            boolean allWordStarts = true;
+            for (String w : words) {
+                if (startsWord(field, w)) continue;
+                if (w.length() < 3 || !field.contains(w)) return 0;
+                allWordStarts = false;
+            }
+            kind = allWordStarts ? 60 : 40;
+        }
+        return kind + 10.0 * joined.length() / field.length();
+    }
+
+    private static boolean startsWord(String field, String word) {
+        if (field.startsWith(word)) return true;
+        for (int i = field.indexOf(word, 1); i >= 0; i = field.indexOf(word, i + 1)) {
+            if (Character.isWhitespace(field.charAt(i - 1))) return true;
+        }
+        return false;
+    }
+
+    /** First position at or after {@code from} whose value is {@code >= target}; galloping, then binary search. */
+    private static int seek(int[] list, int size, int from, int target) {
+        int step = 1;
+        int hi = from;
+        while (hi < size && list[hi] < target) {
+            from = hi + 1;
+            hi += step;
+            step <<= 1;
+        }
+        hi = Math.min(hi, size);
+        int at = Arrays.binarySearch(list, from, hi, target);
+        return (at >= 0) ? at : -at - 1;
+    }
+
+    static String normalize(String s) {
+        String decomposed = Normalizer.normalize(s, Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT).trim();
+    }
+
+    private static List<String> words(String normalized) {
+        List<String> words = new ArrayList<>();
+        for (String w : normalized.split("\\s+")) {
+            if (!w.isEmpty()) words.add(w);
+        }
+        return words;
+    }
+
+    private static long trigram(String s, int i) {
+        return 1L << 48 | (long) s.charAt(i) << 32 | (long) s.charAt(i + 1) << 16 | s.charAt(i + 2);
+    }
+
+    private void addPosting(long trigram, int ordinal) {
+        int p = postingByTrigram.get(trigram);
+        if (p == NONE) {
+            if (postingCount == postings.length) {
+                postings = Arrays.copyOf(postings, postingCount * 2);
+                postingSizes = Arrays.copyOf(postingSizes, postingCount * 2);
+            }
+            p = postingCount++;
+            postings[p] = new int[4];
+            postingByTrigram.put(trigram, p);
+        }
+        int size = postingSizes[p];
+        if (size > 0 && postings[p][size - 1] == ordinal) return;
+        if (size == postings[p].length) {
+            postings[p] = Arrays.copyOf(postings[p], size * 2);
+        }
+        postings[p][size] = ordinal;
+        postingSizes[p] = size + 1;
+    }
+
+    private void growDocuments(int capacity) {
+        keys = Arrays.copyOf(keys, capacity);
+        values = Arrays.copyOf(values, capacity);
+        normalized = Arrays.copyOf(normalized, capacity);
+    }
+
+    /**
+     * Renumbers the live documents from zero: posting lists are rewritten in place, dropping dead ordinals.
+     */
+    private void compact() {
+        int[] renumbered = new int[highWater];
+        int live = 0;
+        for (int ordinal = 0; ordinal < highWater; ordinal++) {
+            if (keys[ordinal] == 0L) {
+                renumbered[ordinal] = NONE;
+                continue;
+            }
+            renumbered[ordinal] = live;
+            keys[live] = keys[ordinal];
+            values[live] = values[ordinal];
+            normalized[live] = normalized[ordinal];
+            ordinalByKey.put(keys[live], live);
+            live++;
+        }
+        Arrays.fill(keys, live, highWater, 0L);
+        Arrays.fill(values, live, highWater, null);
+        Arrays.fill(normalized, live, highWater, null);
+        highWater = live;
+        dead = 0;
+
+        for (int p = 0; p < postingCount; p++) {
+            int[] list = postings[p];
+            int size = 0;
+            for (int i = 0; i < postingSizes[p]; i++) {
+                int to = renumbered[list[i]];
+                if (to != NONE) list[size++] = to;
+            }
+            postingSizes[p] = size;
+        }
+    }
+
+    interface KeyFilter {
+        KeyFilter ALL = key -> true;
+
+        boolean accept(long key);
+    }
+
+    /**
+     * @param field index of the matching field in the array given to {@link #put}
+     * @param label the document's first field
+     */
+    record Hit(long key, int field, String value, String label, double score) {
+        static final Comparator<Hit> WORST_FIRST = Comparator.comparingDouble(Hit::score)
+                .thenComparing(Comparator.comparingLong(Hit::key).reversed());
+    }
+
+    private static final class LongArray {
+        long[] values = new long[16];
+        int size;
+
+        void add(long v) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = v;
+        }
+    }
+
+    /**
+     * Open-addressing long → int map with linear probing; 0 marks an empty bucket, so keys must not be 0.
+     */
+    private static final class LongIntMap {
+        private long[] keys;
+        private int[] values;
+        private int size;
+        private int mask;
+
+        LongIntMap(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(expected, 8) * 2 - 1) << 1;
+            keys = new long[capacity];
+            values = new int[capacity];
+            mask = capacity - 1;
+        }
+
+        int get(long key) {
+            for (int i = bucket(key); ; i = (i + 1) & mask) {
+                long k = keys[i];
+                if (k == key) {
+                    return values[i];
+                }
+                if (k == 0L) {
+                    return NONE;
+                }
+            }
+        }
+
+        void put(long key, int value) {
+            if ((size + 1) * 2 > keys.length) {
+                rehash(keys.length * 2);
+            }
+            int i = bucket(key);
+            while (keys[i] != 0L && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            if (keys[i] == 0L) {
+                size++;
+            }
+            keys[i] = key;
+            values[i] = value;
+        }
+
+        void remove(long key) {
+            int i = bucket(key);
+            while (keys[i] != key) {
+                if (keys[i] == 0L) {
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+            size--;
+            // backward-shift deletion keeps probe chains intact without tombstones
+            int gap = i;
+            for (int j = (gap + 1) & mask; keys[j] != 0L; j = (j + 1) & mask) {
+                int home = bucket(keys[j]);
+                if (((j - home) & mask) >= ((j - gap) & mask)) {
+                    keys[gap] = keys[j];
+                    values[gap] = values[j];
+                    gap = j;
+                }
+            }
+            keys[gap] = 0L;
+        }
+
+        private void rehash(int capacity) {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new long[capacity];
+            values = new int[capacity];
+            mask = capacity - 1;
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0L) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private int bucket(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+    }
+}
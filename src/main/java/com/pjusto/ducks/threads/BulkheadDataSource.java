@@ -0,0 +1,120 @@
+package com.pjusto.ducks.threads;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Caps how many connections can be checked out at once. Callers over the cap queue on a fair
+ * {@link Semaphore}, where a waiting virtual thread just parks, instead of all contending inside the
+ * pool. A caller that cannot get a permit within {@code acquireTimeout} gets a
+ * {@link SQLTransientConnectionException}, the same failure as a pool timeout. The permit is returned
+ * when the connection is closed.
+ */
+class BulkheadDataSource extends DelegatingDataSource {
+
+    private final Semaphore permits;
+    private final int maxPermits;
+    private final long acquireTimeoutNanos;
+    private volatile Timer waitTimer;
+
+    BulkheadDataSource(DataSource target, int maxPermits, Duration acquireTimeout) {
+        super(target);
+        this.permits = new Semaphore(maxPermits, true);
+        this.maxPermits = maxPermits;
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return guard(super.getConnection());
+        } catch (SQLException | RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return guard(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+
+    void bindTo(MeterRegistry registry) {
+        Gauge.builder("ducks.datasource.bulkhead.waiting", permits, Semaphore::getQueueLength)
+                .description("Threads waiting for a connection permit")
+                .register(registry);
+        Gauge.builder("ducks.datasource.bulkhead.in-use", permits, p -> maxPermits - p.availablePermits())
+                .description("Connection permits currently held")
+                .register(registry);
+        waitTimer = Timer.builder("ducks.datasource.bulkhead.wait")
+                .description("Time spent waiting for a connection permit")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private void acquire() throws SQLException {
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a connection permit", ex);
+        }
+        Timer timer = waitTimer;
+        if (timer != null) {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        if (!acquired) {
+            throw new SQLTransientConnectionException("No connection permit within "
+                    + Duration.ofNanos(acquireTimeoutNanos) + " (" + maxPermits + " in use, "
+                    + permits.getQueueLength() + " waiting)");
+        }
+    }
+
+    private Connection guard(Connection target) {
+        AtomicBoolean released = new AtomicBoolean();
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (method.getName().equals("close") && released.compareAndSet(false, true)) {
+                try {
+                    return invoke(target, method, args);
+                } finally {
+                    permits.release();
+                }
+            }
+            return invoke(target, method, args);
+        };
+        return (Connection) Proxy.newProxyInstance(
+                BulkheadDataSource.class.getClassLoader(), new Class<?>[]{Connection.class}, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.pjusto.ducks.threads;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Streams JFR {@code jdk.VirtualThreadPinned} events: a virtual thread that blocked while it could not
+ * unmount, typically inside a {@code synchronized} block or a native frame, and so held its carrier
+ * thread. Each event above the threshold is logged with its stack and counted by site, the first frame
+ * outside the JDK, in {@code ducks.vthreads.pinned}. {@code jdk.VirtualThreadSubmitFailed} means the
+ * scheduler could not run a virtual thread at all and is logged as an error.
+ */
+class PinnedThreadMonitor implements InitializingBean, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(PinnedThreadMonitor.class);
+
+    private static final int LOGGED_FRAMES = 12;
+
+    private final MeterRegistry registry;
+    private final Duration threshold;
+    private RecordingStream stream;
+
+    PinnedThreadMonitor(MeterRegistry registry, Duration threshold) {
+        this.registry = registry;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        stream = new RecordingStream();
+        stream.enable("jdk.VirtualThreadPinned").withThreshold(threshold).withStackTrace();
+        stream.enable("jdk.VirtualThreadSubmitFailed").withStackTrace();
+        stream.onEvent("jdk.VirtualThreadPinned", this::onPinned);
+        stream.onEvent("jdk.VirtualThreadSubmitFailed", event ->
+                log.error("Virtual thread could not be scheduled: {}\n{}", event.getString("exceptionMessage"), frames(event)));
+        stream.startAsync();
+        log.info("Reporting virtual threads pinned for more than {}", threshold);
+    }
+
+    @Override
+    public void destroy() {
+        if (stream != null) stream.close();
+    }
+
+    private void onPinned(RecordedEvent event) {
+        String site = site(event.getStackTrace());
+        Counter.builder("ducks.vthreads.pinned")
+                .description("Virtual threads that blocked while pinned to their carrier")
+                .tag("site", site)
+                .register(registry)
+                .increment();
+        Timer.builder("ducks.vthreads.pinned.time")
+                .description("How long pinned virtual threads held their carrier")
+                .tag("site", site)
+                .register(registry)
+                .record(event.getDuration().toNanos(), TimeUnit.NANOSECONDS);
+        log.warn("Virtual thread pinned for {} ms at {}\n{}", event.getDuration().toMillis(), site, frames(event));
+    }
+
+    /** Class and method of the first frame outside the JDK, which is where the pinning code lives. */
+    private static String site(RecordedStackTrace stack) {
+        if (stack == null) return "unknown";
+        for (RecordedFrame frame : stack.getFrames()) {
+            if (!frame.isJavaFrame()) continue;
+            String type = frame.getMethod().getType().getName();
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                return type + "." + frame.getMethod().getName();
+            }
+        }
+        return "jdk";
+    }
+
+    private static String frames(RecordedEvent event) {
+        RecordedStackTrace stack = event.getStackTrace();
+        if (stack == null) return "\t(no stack trace)";
+        List<RecordedFrame> frames = stack.getFrames();
+        return frames.stream()
+                .limit(LOGGED_FRAMES)
+                .map(f -> "\tat " + f.getMethod().getType().getName() + "." + f.getMethod().getName()
+                        + (f.isJavaFrame() ? ":" + f.getLineNumber() : " (native)"))
+                .collect(Collectors.joining("\n"));
+    }
+}
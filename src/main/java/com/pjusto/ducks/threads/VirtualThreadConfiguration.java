@@ -0,0 +1,58 @@
+package com.pjusto.ducks.threads;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Virtual-thread mode, on with {@code spring.threads.virtual.enabled=true} on Java 21. Boot then serves
+ * requests, async bodies and scheduled tasks on virtual threads, and {@code ReportJobService} runs its
+ * workers on them. Because the request count no longer caps how many threads reach for a connection,
+ * the DataSource gets a {@link BulkheadDataSource} sized to the pool, and pinned virtual threads are
+ * reported by {@link PinnedThreadMonitor}.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfiguration {
+
+    @Bean
+    static BeanPostProcessor bulkheadDataSourcePostProcessor(Environment env) {
+        int permits = env.getProperty("ducks.datasource.bulkhead.permits", Integer.class,
+                env.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10));
+        Duration acquireTimeout = env.getProperty("ducks.datasource.bulkhead.acquire-timeout", Duration.class,
+                Duration.ofSeconds(30));
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource ds && !(bean instanceof BulkheadDataSource)) {
+                    return new BulkheadDataSource(ds, permits, acquireTimeout);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    MeterBinder dataSourceBulkheadMetrics(DataSource dataSource) throws SQLException {
+        BulkheadDataSource bulkhead = dataSource.unwrap(BulkheadDataSource.class);
+        return bulkhead::bindTo;
+    }
+
+    @Bean
+    PinnedThreadMonitor pinnedThreadMonitor(
+            MeterRegistry registry,
+            @Value("${ducks.vthreads.pinned-threshold:PT0.02S}") Duration threshold
+    ) {
+        return new PinnedThreadMonitor(registry, threshold);
+    }
+}
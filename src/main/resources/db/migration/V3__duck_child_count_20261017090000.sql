@@ -0,0 +1,56 @@
+ALTER TABLE duck
+  ADD COLUMN child_count INTEGER NOT NULL DEFAULT 0,
+  ADD CONSTRAINT chk_duck_child_count CHECK (child_count >= 0);
+
+ALTER TABLE duck
+  ADD COLUMN price NUMERIC(12,2) GENERATED ALWAYS AS (
+    CASE
+      WHEN child_count = 0 THEN 70.00
+      WHEN child_count = 1 THEN 50.00
+      ELSE 25.00
+    END
+  ) STORED;
+
+UPDATE duck d
+SET child_count = c.cnt
+FROM (
+  SELECT mother_id, COUNT(*) AS cnt
+  FROM duck
+  WHERE mother_id IS NOT NULL
+  GROUP BY mother_id
+) c
+WHERE d.id = c.mother_id;
+
+
+-- Keeps duck.child_count in sync with mother_id on insert, mother re-assignment and delete.
+-- The ON DELETE SET NULL action on fk_duck_mother fires the UPDATE branch for the orphaned
+-- children; their OLD.mother_id is the row being deleted, so that decrement is a no-op.
+CREATE FUNCTION duck_child_count_sync() RETURNS TRIGGER AS $$
+BEGIN
+  IF TG_OP IN ('UPDATE', 'DELETE') AND OLD.mother_id IS NOT NULL THEN
+    UPDATE duck SET child_count = child_count - 1 WHERE id = OLD.mother_id;
+  END IF;
+  IF TG_OP IN ('INSERT', 'UPDATE') AND NEW.mother_id IS NOT NULL THEN
+    UPDATE duck SET child_count = child_count + 1 WHERE id = NEW.mother_id;
+  END IF;
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_duck_child_count_insert
+  AFTER INSERT ON duck
+  FOR EACH ROW
+  WHEN (NEW.mother_id IS NOT NULL)
+  EXECUTE FUNCTION duck_child_count_sync();
+
+CREATE TRIGGER trg_duck_child_count_update
+  AFTER UPDATE OF mother_id ON duck
+  FOR EACH ROW
+  WHEN (OLD.mother_id IS DISTINCT FROM NEW.mother_id)
+  EXECUTE FUNCTION duck_child_count_sync();
+
+CREATE TRIGGER trg_duck_child_count_delete
+  AFTER DELETE ON duck
+  FOR EACH ROW
+  WHEN (OLD.mother_id IS NOT NULL)
+  EXECUTE FUNCTION duck_child_count_sync();
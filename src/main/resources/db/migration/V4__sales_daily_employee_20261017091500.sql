@@ -0,0 +1,20 @@
+CREATE TABLE sales_daily_employee (
+  day         DATE          NOT NULL,
+  employee_id BIGINT        NOT NULL,
+
+  sale_count BIGINT        NOT NULL DEFAULT 0 CHECK (sale_count >= 0),
+  revenue    NUMERIC(18,2) NOT NULL DEFAULT 0 CHECK (revenue >= 0),
+
+  CONSTRAINT pk_sales_daily_employee PRIMARY KEY (day, employee_id),
+  CONSTRAINT fk_sales_daily_employee_employee FOREIGN KEY (employee_id) REFERENCES employee(id) ON DELETE RESTRICT
+);
+CREATE INDEX idx_sales_daily_employee_employee ON sales_daily_employee(employee_id);
+
+-- Days are UTC calendar days, matching the bounds used by the ranking endpoints.
+INSERT INTO sales_daily_employee (day, employee_id, sale_count, revenue)
+SELECT (s.sale_date AT TIME ZONE 'UTC')::date,
+       s.employee_id,
+       COUNT(*),
+       SUM(s.total_after_discount)
+FROM sale s
+GROUP BY 1, 2;
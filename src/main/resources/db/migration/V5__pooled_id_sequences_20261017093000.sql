@@ -0,0 +1,9 @@
+-- Entities switch from IDENTITY to SEQUENCE generation with Hibernate's pooled optimizer, which reserves
+-- a block of ids per nextval() so inserts can be batched. The increment must equal the allocationSize
+-- of each @SequenceGenerator. Column defaults keep using the same sequences, so rows inserted outside
+-- Hibernate take the top of a block that the pooled optimizer then never claims, so ids cannot collide.
+ALTER SEQUENCE duck_id_seq      INCREMENT BY 50;
+ALTER SEQUENCE customer_id_seq  INCREMENT BY 50;
+ALTER SEQUENCE employee_id_seq  INCREMENT BY 50;
+ALTER SEQUENCE sale_id_seq      INCREMENT BY 50;
+ALTER SEQUENCE sale_item_id_seq INCREMENT BY 50;
@@ -0,0 +1,8 @@
+-- Substring name filters (lower(name) LIKE '%term%') cannot use a b-tree index. Trigram GIN indexes on the
+-- same lower(name) expression serve them as bitmap index scans; the queries must use exactly lower(name)
+-- for the planner to match the index.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX idx_duck_name_trgm     ON duck     USING gin (lower(name) gin_trgm_ops);
+CREATE INDEX idx_customer_name_trgm ON customer USING gin (lower(name) gin_trgm_ops);
+CREATE INDEX idx_employee_name_trgm ON employee USING gin (lower(name) gin_trgm_ops);
@@ -0,0 +1,117 @@
+-- sale becomes a table partitioned by month of sale_date (UTC), so date-bounded reads only touch the months
+-- they ask for. The primary key must include the partition key: it is now (id, sale_date).
+--
+-- sale_item stays a plain table: partitioning it would require sale_date in every unique constraint, and
+-- uq_saleitem_duck (a duck is sold once) must stay global. Instead it carries a copy of sale_date, which
+-- the foreign key to the partitioned table needs and which lets sold-duck queries filter and order by date
+-- on sale_item itself.
+--
+-- There is no default partition: ensure_sale_partitions() creates months ahead of time (see
+-- SalePartitionMaintainer), and an insert for a month without a partition fails loudly instead of piling
+-- rows into a default partition that would then block creating that month.
+
+DROP VIEW v_sold_duck;
+ALTER TABLE sale_item DROP CONSTRAINT sale_item_sale_id_fkey;
+ALTER SEQUENCE sale_id_seq OWNED BY NONE;
+ALTER TABLE sale RENAME TO sale_unpartitioned;
+DROP INDEX idx_sale_employee_date, idx_sale_customer_date, idx_sale_date;
+
+CREATE TABLE sale (
+  id BIGINT NOT NULL DEFAULT nextval('sale_id_seq'),
+
+  total_before_discount NUMERIC(12,2) NOT NULL CHECK (total_before_discount >= 0),
+  total_after_discount  NUMERIC(12,2) NOT NULL CHECK (total_after_discount >= 0),
+
+  customer_id BIGINT NOT NULL,
+  employee_id BIGINT NOT NULL,
+
+  sale_date  TIMESTAMPTZ NOT NULL DEFAULT now(),
+  created_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+  updated_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+
+  CONSTRAINT pk_sale PRIMARY KEY (id, sale_date),
+  CONSTRAINT fk_sale_customer FOREIGN KEY (customer_id) REFERENCES customer(id) ON DELETE RESTRICT,
+  CONSTRAINT fk_sale_employee FOREIGN KEY (employee_id) REFERENCES employee(id) ON DELETE RESTRICT
+) PARTITION BY RANGE (sale_date);
+
+ALTER SEQUENCE sale_id_seq OWNED BY sale.id;
+
+
+-- Creates the missing monthly partitions sale_yYYYYmMM for every month from first_month to last_month,
+-- both inclusive; returns how many were created. Safe to call concurrently from several nodes.
+CREATE FUNCTION ensure_sale_partitions(first_month DATE, last_month DATE) RETURNS INTEGER AS $$
+DECLARE
+  m       DATE := date_trunc('month', first_month)::date;
+  part    TEXT;
+  created INTEGER := 0;
+BEGIN
+  PERFORM pg_advisory_xact_lock(hashtext('ensure_sale_partitions'));
+  WHILE m <= last_month LOOP
+    part := format('sale_y%sm%s', to_char(m, 'YYYY'), to_char(m, 'MM'));
+    IF to_regclass(part) IS NULL THEN
+      EXECUTE format(
+        'CREATE TABLE %I PARTITION OF sale FOR VALUES FROM (%L) TO (%L)',
+        part,
+        m::timestamp AT TIME ZONE 'UTC',
+        (m + INTERVAL '1 month')::timestamp AT TIME ZONE 'UTC'
+      );
+      created := created + 1;
+    END IF;
+    m := (m + INTERVAL '1 month')::date;
+  END LOOP;
+  RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT ensure_sale_partitions(
+  COALESCE((SELECT min(sale_date) AT TIME ZONE 'UTC' FROM sale_unpartitioned)::date, (now() AT TIME ZONE 'UTC')::date),
+  ((now() AT TIME ZONE 'UTC') + INTERVAL '3 months')::date
+);
+
+INSERT INTO sale (id, total_before_discount, total_after_discount, customer_id, employee_id, sale_date, created_at, updated_at)
+SELECT id, total_before_discount, total_after_discount, customer_id, employee_id, sale_date, created_at, updated_at
+FROM sale_unpartitioned;
+
+-- Partitioned indexes: each one cascades to every current and future partition.
+CREATE INDEX idx_sale_employee_date ON sale(employee_id, sale_date);
+CREATE INDEX idx_sale_customer_date ON sale(customer_id, sale_date);
+CREATE INDEX idx_sale_date          ON sale(sale_date);
+
+
+ALTER TABLE sale_item ADD COLUMN sale_date TIMESTAMPTZ;
+
+UPDATE sale_item si
+SET sale_date = s.sale_date
+FROM sale_unpartitioned s
+WHERE s.id = si.sale_id;
+
+ALTER TABLE sale_item
+  ALTER COLUMN sale_date SET NOT NULL,
+  ADD CONSTRAINT fk_sale_item_sale FOREIGN KEY (sale_id, sale_date) REFERENCES sale(id, sale_date) ON DELETE CASCADE;
+
+CREATE INDEX idx_sale_item_sale      ON sale_item(sale_id, sale_date);
+CREATE INDEX idx_sale_item_sale_date ON sale_item(sale_date, id);
+
+DROP TABLE sale_unpartitioned;
+
+
+-- Joins on both key columns so the lookup into sale uses pk_sale and date filters prune partitions.
+CREATE VIEW v_sold_duck AS
+SELECT
+  d.id          AS duck_id,
+  d.name        AS duck_name,
+  si.price_at_sale,
+  s.id          AS sale_id,
+  s.sale_date,
+  c.id          AS customer_id,
+  c.name        AS customer_name,
+  e.id          AS employee_id,
+  e.name        AS employee_name
+FROM sale_item si
+JOIN duck d      ON d.id = si.duck_id
+JOIN sale s      ON s.id = si.sale_id AND s.sale_date = si.sale_date
+JOIN customer c  ON c.id = s.customer_id
+JOIN employee e  ON e.id = s.employee_id;
+
+ANALYZE sale;
+ANALYZE sale_item;
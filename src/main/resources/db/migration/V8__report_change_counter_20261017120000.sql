@@ -0,0 +1,48 @@
+-- Change counters for the duck report version. Every statement that writes duck, customer, sale or sale_item
+-- bumps a counter in the same transaction, so a change becomes visible together with the rows it changed,
+-- no matter when it commits or what the writer's clock says (max(updated_at) misses both).
+--
+-- Each source is spread over 16 slots picked by backend pid, so concurrent writers rarely wait on the same
+-- counter row; readers sum the slots.
+
+CREATE TABLE report_change (
+  source     TEXT        NOT NULL,
+  slot       INTEGER     NOT NULL,
+  changes    BIGINT      NOT NULL DEFAULT 0,
+  changed_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+  CONSTRAINT pk_report_change PRIMARY KEY (source, slot)
+);
+
+INSERT INTO report_change (source, slot)
+SELECT source, slot
+FROM unnest(ARRAY['duck', 'customer', 'sale']) AS source,
+     generate_series(0, 15) AS slot;
+
+CREATE FUNCTION report_change_bump() RETURNS TRIGGER AS $$
+BEGIN
+  UPDATE report_change
+  SET changes = changes + 1, changed_at = now()
+  WHERE source = TG_ARGV[0] AND slot = pg_backend_pid() % 16;
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_duck_report_change
+  AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON duck
+  FOR EACH STATEMENT
+  EXECUTE FUNCTION report_change_bump('duck');
+
+CREATE TRIGGER trg_customer_report_change
+  AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON customer
+  FOR EACH STATEMENT
+  EXECUTE FUNCTION report_change_bump('customer');
+
+CREATE TRIGGER trg_sale_report_change
+  AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON sale
+  FOR EACH STATEMENT
+  EXECUTE FUNCTION report_change_bump('sale');
+
+CREATE TRIGGER trg_sale_item_report_change
+  AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON sale_item
+  FOR EACH STATEMENT
+  EXECUTE FUNCTION report_change_bump('sale');
@@ -0,0 +1,59 @@
+-- Number of sold ducks for the duck report version, kept next to the change counters so that reading the
+-- version never counts sale_item. Like changes, it is spread over the 16 'sale' slots and readers sum them;
+-- each slot holds the net rows its writers added, so a slot may go negative.
+--
+-- The statement-level trigger on sale_item is replaced by one per event: INSERT and DELETE read the row count
+-- from their transition table, UPDATE cannot change it, and TRUNCATE resets it.
+
+ALTER TABLE report_change ADD COLUMN sold BIGINT NOT NULL DEFAULT 0;
+
+UPDATE report_change
+SET sold = (SELECT count(*) FROM sale_item)
+WHERE source = 'sale' AND slot = 0;
+
+DROP TRIGGER trg_sale_item_report_change ON sale_item;
+
+CREATE FUNCTION report_change_sale_item() RETURNS TRIGGER AS $$
+DECLARE
+  delta BIGINT := 0;
+BEGIN
+  IF TG_OP = 'TRUNCATE' THEN
+    -- TRUNCATE holds an exclusive lock on sale_item, so no other writer can be mid-statement on a slot
+    UPDATE report_change
+    SET changes = changes + CASE WHEN slot = pg_backend_pid() % 16 THEN 1 ELSE 0 END,
+        sold = 0,
+        changed_at = now()
+    WHERE source = 'sale';
+    RETURN NULL;
+  END IF;
+
+  -- changed_rows only exists for INSERT and DELETE, so it is read in statements of its own
+  IF TG_OP = 'INSERT' THEN
+    SELECT count(*) INTO delta FROM changed_rows;
+  ELSIF TG_OP = 'DELETE' THEN
+    SELECT -count(*) INTO delta FROM changed_rows;
+  END IF;
+
+  UPDATE report_change
+  SET changes = changes + 1, sold = sold + delta, changed_at = now()
+  WHERE source = 'sale' AND slot = pg_backend_pid() % 16;
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_sale_item_report_change_insert
+  AFTER INSERT ON sale_item
+  REFERENCING NEW TABLE AS changed_rows
+  FOR EACH STATEMENT
+  EXECUTE FUNCTION report_change_sale_item();
+
+CREATE TRIGGER trg_sale_item_report_change_delete
+  AFTER DELETE ON sale_item
+  REFERENCING OLD TABLE AS changed_rows
+  FOR EACH STATEMENT
+  EXECUTE FUNCTION report_change_sale_item();
+
+CREATE TRIGGER trg_sale_item_report_change
+  AFTER UPDATE OR TRUNCATE ON sale_item
+  FOR EACH STATEMENT
+  EXECUTE FUNCTION report_change_sale_item();
@@ -0,0 +1,129 @@
+package com.pjusto.ducks.cache;
+
+import com.pjusto.ducks.DucksApplication;
+import com.pjusto.ducks.customer.Customer;
+import com.pjusto.ducks.customer.CustomerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.RestClient;
+
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two application contexts on the same Postgres stand in for two nodes: a write announced on one
+ * must evict the cached copy on the other.
+ */
+class InvalidationBusTests {
+
+    private ConfigurableApplicationContext nodeA;
+    private ConfigurableApplicationContext nodeB;
+    private final BlockingQueue<EntityInvalidatedEvent> receivedByB = new LinkedBlockingQueue<>();
+
+    @BeforeEach
+    void startNodes() {
+        nodeA = node().run();
+        nodeB = node()
+                .listeners(ApplicationListener.forPayload(receivedByB::add))
+                .run();
+    }
+
+    @AfterEach
+    void stopNodes() {
+        if (nodeB != null) nodeB.close();
+        if (nodeA != null) nodeA.close();
+    }
+
+    @Test
+    void remoteWriteEvictsCachedCustomer() throws Exception {
+        CustomerRepository repoA = nodeA.getBean(CustomerRepository.class);
+        CustomerRepository repoB = nodeB.getBean(CustomerRepository.class);
+
+        Customer customer = new Customer();
+        customer.setName("Antes");
+        customer.setHasSalesDiscount(false);
+        Long id = repoA.save(customer).getId();
+
+        // load on B so the customer sits in B's second-level cache
+        assertThat(repoB.findById(id)).get().extracting(Customer::getName).isEqualTo("Antes");
+
+        Customer changed = repoA.findById(id).orElseThrow();
+        changed.setName("Depois");
+        repoA.save(changed);
+        nodeA.getBean(InvalidationBus.class).publish(EntityType.CUSTOMER, id);
+
+        EntityInvalidatedEvent event = awaitEvent(EntityType.CUSTOMER, id);
+        assertThat(event.remote()).isTrue();
+        // the probe listener may run before EntityCacheEvictor, so wait for the eviction itself
+        assertThat(awaitCustomerName(repoB, id, "Depois")).isEqualTo("Depois");
+    }
+
+    @Test
+    void customerUpdateThroughControllerEvictsItOnOtherNode() throws Exception {
+        CustomerRepository repoB = nodeB.getBean(CustomerRepository.class);
+
+        Customer customer = new Customer();
+        customer.setName("Antes");
+        customer.setHasSalesDiscount(false);
+        Long id = nodeA.getBean(CustomerRepository.class).save(customer).getId();
+        assertThat(repoB.findById(id)).get().extracting(Customer::getName).isEqualTo("Antes");
+
+        // the controller, not the test, is responsible for announcing the write
+        RestClient.create("http://localhost:" + nodeA.getEnvironment().getProperty("local.server.port"))
+                .put()
+                .uri("/customers/{id}", id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Map.of("name", "Depois", "hasSalesDiscount", true))
+                .retrieve()
+                .toBodilessEntity();
+
+        assertThat(awaitEvent(EntityType.CUSTOMER, id).remote()).isTrue();
+        assertThat(awaitCustomerName(repoB, id, "Depois")).isEqualTo("Depois");
+        assertThat(repoB.findById(id)).get().extracting(Customer::getHasSalesDiscount).isEqualTo(true);
+    }
+
+    @Test
+    void ownNotificationsAreMarkedLocal() throws Exception {
+        nodeB.getBean(InvalidationBus.class).publish(EntityType.DUCK, 1L, 2L, 3L);
+
+        EntityInvalidatedEvent event = awaitEvent(EntityType.DUCK, 1L);
+        assertThat(event.remote()).isFalse();
+        assertThat(event.ids()).containsExactly(1L, 2L, 3L);
+    }
+
+    private EntityInvalidatedEvent awaitEvent(EntityType type, long id) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            EntityInvalidatedEvent event = receivedByB.poll(100, TimeUnit.MILLISECONDS);
+            if (event != null && event.type() == type && event.ids().length > 0 && event.ids()[0] == id) {
+                return event;
+            }
+        }
+        throw new AssertionError("No " + type + " invalidation for id " + id + " reached node B");
+    }
+
+    /** Re-reads the customer until it has {@code expected} or ten seconds pass; returns the last name read. */
+    private static String awaitCustomerName(CustomerRepository repo, Long id, String expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        String name = repo.findById(id).map(Customer::getName).orElse(null);
+        while (!expected.equals(name) && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+            name = repo.findById(id).map(Customer::getName).orElse(null);
+        }
+        return name;
+    }
+
+    private static SpringApplicationBuilder node() {
+        return new SpringApplicationBuilder(DucksApplication.class)
+                .properties("server.port=0");
+    }
+}
@@ -0,0 +1,111 @@
+package com.pjusto.ducks.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTests {
+
+    @Test
+    void concurrentCallsShareOneLoad() throws Exception {
+        SingleFlight<String, Integer> flight = new SingleFlight<>("test", Duration.ZERO, 16);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        int callers = 8;
+
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(pool.submit(() -> flight.get("k", () -> {
+                    loads.incrementAndGet();
+                    await(release);
+                    return 42;
+                })));
+            }
+            while (flight.stats().coalesced() < callers - 1) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            for (Future<Integer> r : results) {
+                assertThat(r.get(5, TimeUnit.SECONDS)).isEqualTo(42);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(loads).hasValue(1);
+        assertThat(flight.stats().loads()).isEqualTo(1);
+        assertThat(flight.stats().coalesced()).isEqualTo(callers - 1);
+    }
+
+    @Test
+    void failureReachesEveryWaiterAndIsNotCached() throws Exception {
+        SingleFlight<String, Integer> flight = new SingleFlight<>("test", Duration.ofMinutes(1), 16);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<Integer> leader = pool.submit(() -> flight.get("k", () -> {
+                await(release);
+                throw new IllegalStateException("boom");
+            }));
+            while (flight.stats().loads() < 1) {
+                Thread.onSpinWait();
+            }
+            Future<Integer> waiter = pool.submit(() -> flight.get("k", () -> 0));
+            while (flight.stats().coalesced() < 1) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+            assertThatThrownBy(() -> waiter.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(flight.get("k", () -> 7)).isEqualTo(7);
+    }
+
+    @Test
+    void resultIsCachedUntilInvalidated() {
+        SingleFlight<String, Integer> flight = new SingleFlight<>("test", Duration.ofMinutes(1), 16);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertThat(flight.get("k", loads::incrementAndGet)).isEqualTo(1);
+        assertThat(flight.get("k", loads::incrementAndGet)).isEqualTo(1);
+        assertThat(flight.stats().cacheHits()).isEqualTo(1);
+
+        flight.invalidateAll();
+        assertThat(flight.get("k", loads::incrementAndGet)).isEqualTo(2);
+    }
+
+    @Test
+    void zeroTtlDoesNotCache() {
+        SingleFlight<String, Integer> flight = new SingleFlight<>("test", Duration.ZERO, 16);
+        AtomicInteger loads = new AtomicInteger();
+
+        flight.get("k", loads::incrementAndGet);
+        flight.get("k", loads::incrementAndGet);
+
+        assertThat(loads).hasValue(2);
+        assertThat(flight.stats().cachedEntries()).isZero();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
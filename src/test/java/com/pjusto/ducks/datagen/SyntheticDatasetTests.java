@@ -0,0 +1,66 @@
+package com.pjusto.ducks.datagen;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.withinPercentage;
+
+class SyntheticDatasetTests {
+
+    private static final SyntheticDataset.Spec SPEC = new SyntheticDataset.Spec(
+            7, 20_000, 1.2, 8, 0.02, 500, 0.3, 20, 0.6, 10, LocalDate.of(2026, 10, 1), 365);
+
+    @Test
+    void sameSeedGivesSameDataset() {
+        SyntheticDataset a = new SyntheticDataset(SPEC);
+        SyntheticDataset b = new SyntheticDataset(SPEC);
+
+        assertThat(a.duckMother).isEqualTo(b.duckMother);
+        assertThat(a.itemDuck).isEqualTo(b.itemDuck);
+        assertThat(a.itemSale).isEqualTo(b.itemSale);
+        assertThat(a.saleCustomer).isEqualTo(b.saleCustomer);
+        assertThat(a.saleEpochSecond).isEqualTo(b.saleEpochSecond);
+        assertThat(a.names().duck()).isEqualTo(b.names().duck());
+    }
+
+    @Test
+    void mothersComeBeforeTheirDaughters() {
+        SyntheticDataset data = new SyntheticDataset(SPEC);
+
+        for (int id = 1; id <= SPEC.ducks(); id++) {
+            assertThat(data.duckMother[id]).isLessThan(id);
+        }
+        assertThat(Arrays.stream(data.duckMother, 1, SPEC.ducks() + 1).filter(m -> m == 0).count()).isPositive();
+    }
+
+    @Test
+    void everyDuckIsSoldAtMostOnce() {
+        SyntheticDataset data = new SyntheticDataset(SPEC);
+
+        assertThat(Arrays.stream(data.itemDuck).distinct().count()).isEqualTo(data.items());
+        assertThat(data.items()).isCloseTo((int) (SPEC.ducks() * SPEC.soldRatio()), withinPercentage(5));
+    }
+
+    @Test
+    void salesFallInsideThePeriod() {
+        SyntheticDataset data = new SyntheticDataset(SPEC);
+        long first = SPEC.firstDay().atStartOfDay(ZoneOffset.UTC).toEpochSecond();
+        long end = SPEC.until().atStartOfDay(ZoneOffset.UTC).toEpochSecond();
+
+        for (int sale = 1; sale <= data.sales(); sale++) {
+            assertThat(data.saleEpochSecond[sale]).isBetween(first, end - 1);
+            assertThat(data.saleCustomer[sale]).isBetween(1, SPEC.customers());
+            assertThat(data.saleEmployee[sale]).isBetween(1, SPEC.employees());
+        }
+    }
+
+    @Test
+    void cpfHasValidCheckDigits() {
+        // 111.444.777-35 is the usual worked example
+        assertThat(SyntheticDataset.cpf(11_444_777)).isEqualTo("11144477735");
+    }
+}
@@ -0,0 +1,120 @@
+package com.pjusto.ducks.duck;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Parser and validation rules of the bulk import; each test imports once inside a rolled-back transaction.
+ */
+@SpringBootTest
+@Transactional
+class DuckBulkImporterTests {
+
+    @Autowired
+    private DuckBulkImporter importer;
+    @Autowired
+    private DuckRepository duckRepository;
+
+    @Test
+    void csvReaderHandlesQuotesAndTracksPhysicalLines() throws Exception {
+        DuckBulkImporter.CsvReader csv = new DuckBulkImporter.CsvReader(new StringReader(
+                "name,key\n\"Pato, \"\"A\"\"\",a\r\n\"Duas\nlinhas\",b\rC,c\n\nD,d"));
+
+        assertThat(csv.next()).containsExactly("name", "key");
+        assertThat(csv.line()).isEqualTo(1);
+        assertThat(csv.next()).containsExactly("Pato, \"A\"", "a");
+        assertThat(csv.line()).isEqualTo(2);
+        assertThat(csv.next()).containsExactly("Duas\nlinhas", "b");
+        assertThat(csv.line()).isEqualTo(3);
+        assertThat(csv.next()).containsExactly("C", "c");
+        assertThat(csv.line()).isEqualTo(5);
+        assertThat(csv.next()).containsExactly("");
+        assertThat(csv.line()).isEqualTo(6);
+        assertThat(csv.next()).containsExactly("D", "d");
+        assertThat(csv.line()).isEqualTo(7);
+        assertThat(csv.next()).isNull();
+    }
+
+    @Test
+    void csvErrorsPointAtThePhysicalLine() {
+        String body = "key,name\na,\"Primeira\nSegunda\"\nb,\n";
+
+        assertThatThrownBy(() -> importCsv(body))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("line 4: name must not be blank");
+    }
+
+    @Test
+    void rejectsOverlongNamesAndConflictingMothers() {
+        String body = """
+                {"name":"%s"}
+                {"name":"Pato","motherId":1,"motherKey":"x"}
+                """.formatted("p".repeat(256));
+
+        assertThatThrownBy(() -> importNdjson(body))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("line 1: name must be at most 255 characters")
+                .hasMessageContaining("line 2: motherId and motherKey are mutually exclusive");
+    }
+
+    @Test
+    void resolvesMotherKeysToNewIds() {
+        Duck existing = new Duck();
+        existing.setName("Matriarca");
+        duckRepository.saveAndFlush(existing);
+
+        String body = """
+                key,name,motherId,motherKey
+                neta,Neta,,filha
+                filha,Filha,%d,
+                avulsa,Avulsa,,
+                """.formatted(existing.getId());
+
+        Map<String, DuckBulkImporter.ImportedDuck> byKey = importCsv(body).stream()
+                .collect(Collectors.toMap(DuckBulkImporter.ImportedDuck::key, d -> d));
+
+        assertThat(byKey.get("neta").line()).isEqualTo(2);
+        assertThat(byKey.get("neta").motherId()).isEqualTo(byKey.get("filha").id());
+        assertThat(byKey.get("filha").motherId()).isEqualTo(existing.getId());
+        assertThat(byKey.get("avulsa").motherId()).isNull();
+        assertThat(duckRepository.findById(byKey.get("neta").id()))
+                .hasValueSatisfying(d -> assertThat(d.getMother().getId()).isEqualTo(byKey.get("filha").id()));
+    }
+
+    @Test
+    void rejectsCyclesAmongMotherKeys() {
+        String body = """
+                {"key":"raiz","name":"Raiz"}
+                {"key":"a","name":"A","motherKey":"c"}
+                {"key":"b","name":"B","motherKey":"a"}
+                {"key":"c","name":"C","motherKey":"b"}
+                """;
+
+        assertThatThrownBy(() -> importNdjson(body))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("line 2: mother chain forms a cycle: key=a")
+                .hasMessageContaining("line 4: mother chain forms a cycle: key=c")
+                .message().doesNotContain("key=raiz");
+    }
+
+    private List<DuckBulkImporter.ImportedDuck> importCsv(String body) {
+        return importer.importDucks(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), DuckBulkImporter.Format.CSV);
+    }
+
+    private List<DuckBulkImporter.ImportedDuck> importNdjson(String body) {
+        return importer.importDucks(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), DuckBulkImporter.Format.NDJSON);
+    }
+}
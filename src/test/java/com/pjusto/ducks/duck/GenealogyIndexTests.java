@@ -0,0 +1,110 @@
+package com.pjusto.ducks.duck;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class GenealogyIndexTests {
+
+    private GenealogyIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new GenealogyIndex(null, null);
+        // 1 -> 2 -> 4
+        //   -> 3
+        // 5
+        index.build(new long[]{1, 2, 3, 4, 5}, new long[]{0, 1, 1, 2, 0}, 5);
+    }
+
+    @Test
+    void buildComputesSubtreeSizesAndDepths() {
+        assertThat(index.subtreeSize(1)).isEqualTo(4);
+        assertThat(index.subtreeSize(2)).isEqualTo(2);
+        assertThat(index.subtreeSize(5)).isEqualTo(1);
+        assertThat(index.depth(4)).isEqualTo(2);
+        assertThat(index.depth(5)).isZero();
+    }
+
+    @Test
+    void ancestorsAndDescendantsRespectDepthLimit() {
+        assertThat(index.ancestors(4, 10)).extracting(GenealogyIndex.Node::id).containsExactly(2L, 1L);
+        assertThat(index.ancestors(4, 1)).extracting(GenealogyIndex.Node::id).containsExactly(2L);
+        assertThat(index.descendants(1, 1, 100)).extracting(GenealogyIndex.Node::id).containsExactlyInAnyOrder(2L, 3L);
+        assertThat(index.descendants(1, 2, 100)).extracting(GenealogyIndex.Node::id).containsExactlyInAnyOrder(2L, 3L, 4L);
+    }
+
+    @Test
+    void reparentAndRemoveKeepSizesConsistent() {
+        index.put(2, 5L);
+        assertThat(index.subtreeSize(1)).isEqualTo(2);
+        assertThat(index.subtreeSize(5)).isEqualTo(3);
+        assertThat(index.depth(4)).isEqualTo(2);
+
+        index.remove(2);
+        assertThat(index.subtreeSize(5)).isEqualTo(1);
+        assertThat(index.depth(4)).isZero();
+        assertThat(index.contains(2)).isFalse();
+
+        index.put(6, 4L);
+        assertThat(index.subtreeSize(4)).isEqualTo(2);
+    }
+
+    @Test
+    void rejectsMotherCycles() {
+        assertThat(index.isDescendantOrSelf(4, 1)).isTrue();
+        assertThatThrownBy(() -> index.put(1, 4L)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void buildBreaksExistingCycles() {
+        index.build(new long[]{1, 2, 3}, new long[]{3, 1, 2}, 3);
+        assertThat(index.depth(1)).isZero();
+        assertThat(index.subtreeSize(1)).isEqualTo(3);
+        assertThat(index.depth(3)).isEqualTo(2);
+    }
+
+    @Test
+    void writesDuringReloadSurviveTheSwap() throws SQLException {
+        // the scan sees 1 -> 2 and 5
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong(1)).thenReturn(1L, 2L, 5L);
+        when(rs.getLong(2)).thenReturn(0L, 1L, 0L);
+        when(rs.wasNull()).thenReturn(true, false, true);
+
+        GenealogyIndex[] reloading = new GenealogyIndex[1];
+        JdbcTemplate jdbc = new JdbcTemplate() {
+            @Override
+            public void query(PreparedStatementCreator psc, RowCallbackHandler rch) {
+                try {
+                    for (int i = 0; i < 3; i++) {
+                        rch.processRow(rs);
+                    }
+                } catch (SQLException ex) {
+                    throw new IllegalStateException(ex);
+                }
+                // writes committed after the scan's snapshot, applied while it is still running
+                reloading[0].put(7, 2L);
+                reloading[0].remove(5);
+            }
+        };
+        reloading[0] = new GenealogyIndex(jdbc, mock(PlatformTransactionManager.class));
+
+        reloading[0].reload();
+
+        assertThat(reloading[0].depth(7)).isEqualTo(2);
+        assertThat(reloading[0].subtreeSize(1)).isEqualTo(3);
+        assertThat(reloading[0].contains(5)).isFalse();
+    }
+}
@@ -0,0 +1,104 @@
+package com.pjusto.ducks.duck;
+
+import com.pjusto.ducks.customer.Customer;
+import com.pjusto.ducks.customer.CustomerRepository;
+import com.pjusto.ducks.employee.Employee;
+import com.pjusto.ducks.employee.EmployeeRepository;
+import com.pjusto.ducks.sale.Sale;
+import com.pjusto.ducks.sale.SaleItem;
+import com.pjusto.ducks.sale.SaleItemRepository;
+import com.pjusto.ducks.sale.SaleRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Guards {@code GET /ducks/sold} against N+1 lazy loading: a page must cost the same
+ * number of statements no matter how many distinct ducks and customers it contains.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@Transactional
+class SoldDuckQueryCountTests {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private DuckRepository duckRepository;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private EmployeeRepository employeeRepository;
+    @Autowired
+    private SaleRepository saleRepository;
+    @Autowired
+    private SaleItemRepository saleItemRepository;
+
+    @Test
+    void soldPageRunsOneSelectPlusCount() throws Exception {
+        Employee employee = new Employee();
+        employee.setName("Vendedor");
+        employee.setCpf("00000000191");
+        employee.setEmployee_code("QC-0001");
+        employeeRepository.save(employee);
+
+        for (int i = 0; i < PAGE_SIZE + 5; i++) {
+            Customer customer = new Customer();
+            customer.setName("Cliente " + i);
+            customer.setHasSalesDiscount(i % 2 == 0);
+            customerRepository.save(customer);
+
+            Duck duck = new Duck();
+            duck.setName("Pato " + i);
+            duckRepository.save(duck);
+
+            Sale sale = new Sale();
+            sale.setCustomer(customer);
+            sale.setEmployee(employee);
+            sale.setTotalBeforeDiscount(new BigDecimal("70.00"));
+            sale.setTotalAfterDiscount(new BigDecimal("70.00"));
+            sale.setSaleDate(Instant.now());
+            saleRepository.save(sale);
+
+            SaleItem item = new SaleItem();
+            item.setSale(sale);
+            item.setDuck(duck);
+            item.setPriceAtSale(new BigDecimal("70.00"));
+            saleItemRepository.save(item);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+
+        mvc.perform(get("/ducks/sold").param("size", String.valueOf(PAGE_SIZE)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(PAGE_SIZE));
+
+        assertThat(stats.getPrepareStatementCount())
+                .as("statements for one page of /ducks/sold (page select + count)")
+                .isLessThanOrEqualTo(2);
+    }
+}
@@ -0,0 +1,91 @@
+package com.pjusto.ducks.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExportWriterTests {
+
+    /** Configured like Spring Boot's mapper, which writes dates as ISO-8601 strings. */
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    record Row(Long id, String name, BigDecimal price, Instant soldAt) {
+    }
+
+    @Test
+    void csvStartsWithHeaderFromRecordComponents() throws IOException {
+        assertThat(write(ExportFormat.CSV)).isEqualTo("id,name,price,soldAt\n");
+    }
+
+    @Test
+    void csvQuotesCommasQuotesAndLineBreaks() throws IOException {
+        String csv = write(ExportFormat.CSV,
+                new Row(1L, "Pato, o Grande", null, null),
+                new Row(2L, "Pato \"Donald\"", null, null),
+                new Row(3L, "Duas\nlinhas", null, null),
+                new Row(4L, "Fim\r", null, null));
+
+        assertThat(csv).isEqualTo("""
+                id,name,price,soldAt
+                1,"Pato, o Grande",,
+                2,"Pato ""Donald""\",,
+                3,"Duas
+                linhas",,
+                4,"Fim\r",,
+                """);
+    }
+
+    @Test
+    void csvWritesBigDecimalsPlainAndNullsAsEmpty() throws IOException {
+        String csv = write(ExportFormat.CSV,
+                new Row(1L, "Pato", new BigDecimal("7E+1"), Instant.parse("2026-10-17T12:00:00Z")),
+                new Row(null, null, new BigDecimal("0.50"), null));
+
+        assertThat(csv.lines().skip(1)).containsExactly(
+                "1,Pato,70,2026-10-17T12:00:00Z",
+                ",,0.50,");
+    }
+
+    @Test
+    void ndjsonWritesOneObjectPerLine() throws IOException {
+        String ndjson = write(ExportFormat.NDJSON,
+                new Row(1L, "Duas\nlinhas", new BigDecimal("70.00"), Instant.parse("2026-10-17T12:00:00Z")),
+                new Row(2L, null, null, null));
+
+        assertThat(ndjson).endsWith("\n");
+        List<String> lines = ndjson.lines().toList();
+        assertThat(lines).hasSize(2);
+
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        assertThat(first.get("name").asText()).isEqualTo("Duas\nlinhas");
+        assertThat(first.get("price").decimalValue()).isEqualByComparingTo("70.00");
+        assertThat(first.get("soldAt").asText()).isEqualTo("2026-10-17T12:00:00Z");
+
+        JsonNode second = objectMapper.readTree(lines.get(1));
+        assertThat(second.get("id").asLong()).isEqualTo(2L);
+        assertThat(second.get("name").isNull()).isTrue();
+    }
+
+    private String write(ExportFormat format, Row... rows) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ExportWriter<Row> writer = new ExportWriter<>(format, out, objectMapper, Row.class)) {
+            for (Row row : rows) {
+                writer.write(row);
+            }
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
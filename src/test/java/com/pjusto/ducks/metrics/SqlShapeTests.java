@@ -0,0 +1,33 @@
+package com.pjusto.ducks.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlShapeTests {
+
+    @Test
+    void literalsBecomePlaceholders() {
+        assertThat(SqlShape.of("SELECT * FROM sale WHERE id = 42 AND note = 'O''Brien'"))
+                .isEqualTo("select * from sale where id = ? and note = ?");
+    }
+
+    @Test
+    void aliasesWithDigitsAreKept() {
+        assertThat(SqlShape.of("select d1_0.id from duck d1_0 where d1_0.id=?"))
+                .isEqualTo("select d1_0.id from duck d1_0 where d1_0.id=?");
+    }
+
+    @Test
+    void listsOfAnyLengthShareAShape() {
+        assertThat(SqlShape.of("select x from t where y in (?, ?, ?)"))
+                .isEqualTo(SqlShape.of("select x from t where y in (1,2)"));
+        assertThat(SqlShape.of("insert into t (a, b) values (?, ?), (?, ?)"))
+                .isEqualTo("insert into t (a, b) values (?...)");
+    }
+
+    @Test
+    void whitespaceIsCollapsed() {
+        assertThat(SqlShape.of("  select\n\t*   from t  ")).isEqualTo("select * from t");
+    }
+}
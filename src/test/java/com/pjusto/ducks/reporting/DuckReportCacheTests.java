@@ -0,0 +1,134 @@
+package com.pjusto.ducks.reporting;
+
+import com.pjusto.ducks.cache.SingleFlights;
+import com.pjusto.ducks.duck.DuckRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Report versioning and the incremental reload. Each test writes inside a rolled-back transaction and uses
+ * its own cache instance, so nothing cached here can be mistaken for a later version of the shared bean.
+ */
+@SpringBootTest
+@Transactional
+class DuckReportCacheTests {
+
+    @Autowired
+    private DuckRepository duckRepository;
+    @Autowired
+    private SoldDuckViewRepository soldViewRepository;
+    @Autowired
+    private SingleFlights singleFlights;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    private Path cacheDir;
+
+    private DuckReportCache cache;
+    private long customerId;
+    private long employeeId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        cache = new DuckReportCache(duckRepository, soldViewRepository, singleFlights, cacheDir);
+        customerId = jdbcTemplate.queryForObject(
+                "INSERT INTO customer (name, has_sales_discount) VALUES ('Cliente', false) RETURNING id", Long.class);
+        employeeId = jdbcTemplate.queryForObject(
+                "INSERT INTO employee (name, cpf, employee_code) VALUES ('Vendedor', 'rc-cpf', 'RC-0001') RETURNING id",
+                Long.class);
+    }
+
+    @Test
+    void onlySalesDifferComparesDuckAndCustomerCounters() {
+        DuckReportCache.ReportVersion base = new DuckReportCache.ReportVersion(1, 2, 3, 4, 5, 6);
+
+        assertThat(base.onlySalesDiffer(new DuckReportCache.ReportVersion(1, 2, 9, 9, 9, 9))).isTrue();
+        assertThat(base.onlySalesDiffer(new DuckReportCache.ReportVersion(7, 2, 3, 4, 5, 6))).isFalse();
+        assertThat(base.onlySalesDiffer(new DuckReportCache.ReportVersion(1, 7, 3, 4, 5, 6))).isFalse();
+    }
+
+    @Test
+    void writesWithOldTimestampsStillMoveTheVersion() {
+        DuckReportCache.ReportVersion before = cache.currentVersion();
+
+        // what a late commit or a node with a slow clock looks like to max(updated_at)
+        jdbcTemplate.update("UPDATE customer SET name = 'Renomeado', updated_at = '2000-01-01' WHERE id = ?", customerId);
+        DuckReportCache.ReportVersion after = cache.currentVersion();
+
+        assertThat(after.etag()).isNotEqualTo(before.etag());
+        assertThat(after.onlySalesDiffer(before)).isFalse();
+    }
+
+    @Test
+    void soldCountFollowsSaleItemInsertsAndDeletes() {
+        long saleId = sell(insertDuck(), Instant.now());
+        sell(insertDuck(), Instant.now());
+        assertThat(cache.currentVersion().soldCount()).isEqualTo(countSaleItems());
+
+        // cascades from sale, so this is a delete on sale_item fired by another table's statement
+        jdbcTemplate.update("DELETE FROM sale WHERE id = ?", saleId);
+        assertThat(cache.currentVersion().soldCount()).isEqualTo(countSaleItems());
+    }
+
+    @Test
+    void recentSaleIsMergedIntoCachedTree() {
+        long duckId = insertDuck();
+        DuckReportCache.Snapshot first = cache.data(cache.currentVersion());
+
+        sell(duckId, Instant.now());
+        DuckReportCache.ReportVersion version = cache.currentVersion();
+        assertThat(version.onlySalesDiffer(first.version())).isTrue();
+        DuckReportCache.Snapshot merged = cache.data(version);
+
+        assertThat(merged.tree()).isSameAs(first.tree());
+        assertThat(merged.soldByDuckId()).containsKey(duckId).hasSize((int) version.soldCount());
+    }
+
+    @Test
+    void saleOutsideTheWindowFallsBackToFullReload() {
+        long duckId = insertDuck();
+        DuckReportCache.Snapshot first = cache.data(cache.currentVersion());
+
+        Instant longAgo = Instant.now().minus(400, ChronoUnit.DAYS);
+        jdbcTemplate.queryForObject("SELECT ensure_sale_partitions(?::date, ?::date)", Integer.class,
+                longAgo.toString().substring(0, 10), longAgo.toString().substring(0, 10));
+        sell(duckId, longAgo);
+        DuckReportCache.Snapshot reloaded = cache.data(cache.currentVersion());
+
+        assertThat(reloaded.tree()).isNotSameAs(first.tree());
+        assertThat(reloaded.soldByDuckId()).containsKey(duckId);
+    }
+
+    private long insertDuck() {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO duck (id, name) VALUES (nextval('duck_id_seq'), 'Pato') RETURNING id", Long.class);
+    }
+
+    private long countSaleItems() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM sale_item", Long.class);
+    }
+
+    private long sell(long duckId, Instant at) {
+        Timestamp saleDate = Timestamp.from(at);
+        long saleId = jdbcTemplate.queryForObject("""
+                INSERT INTO sale (total_before_discount, total_after_discount, customer_id, employee_id, sale_date)
+                VALUES (70.00, 70.00, ?, ?, ?) RETURNING id""", Long.class, customerId, employeeId, saleDate);
+        jdbcTemplate.update("""
+                INSERT INTO sale_item (id, price_at_sale, sale_id, duck_id, sale_date)
+                VALUES (nextval('sale_item_id_seq'), 70.00, ?, ?, ?)""", saleId, duckId, saleDate);
+        return saleId;
+    }
+}
@@ -0,0 +1,186 @@
+package com.pjusto.ducks.reporting;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.MediaType;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Background report jobs with stand-in generators: one worker and a queue of one, so the third
+ * concurrent job is the first one refused.
+ */
+class ReportJobServiceTests {
+
+    private static final Duration RETENTION = Duration.ofHours(1);
+
+    @TempDir
+    private Path artifactDir;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private volatile List<Path> filesWhileWriting;
+    private ReportJobService service;
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        service = new ReportJobService(List.of(
+                generator("blocking", out -> await(release)),
+                generator("hello", out -> {
+                    filesWhileWriting = files();
+                    out.write("hello".getBytes(StandardCharsets.UTF_8));
+                }),
+                generator("broken", out -> {
+                    out.write("partial".getBytes(StandardCharsets.UTF_8));
+                    throw new IOException("disk full");
+                })
+        ), artifactDir, RETENTION, 1, 1, new MockEnvironment());
+        mvc = MockMvcBuilders.standaloneSetup(new ReportJobController(service)).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        service.destroy();
+    }
+
+    @Test
+    void fullQueueIsRefusedWith503() throws Exception {
+        submit("blocking").andExpect(status().isAccepted());
+        submit("blocking").andExpect(status().isAccepted());
+
+        submit("blocking").andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    void unknownReportIsRefusedWith400() throws Exception {
+        submit("nope.xlsx").andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void artifactIsWrittenToTempFileThenMoved() throws Exception {
+        ReportJobService.Job job = awaitFinished(service.submit("hello"));
+
+        assertThat(job.status()).isEqualTo(ReportJobService.Status.SUCCEEDED);
+        // while writing, only a temp file existed; the final name appeared once the report was complete
+        assertThat(filesWhileWriting).singleElement()
+                .satisfies(p -> assertThat(p.getFileName().toString()).endsWith(".tmp"));
+        assertThat(job.artifact()).hasParent(artifactDir).hasContent("hello");
+        assertThat(files()).containsExactly(job.artifact());
+        mvc.perform(get("/reports/jobs/{id}/download", job.id()))
+                .andExpect(status().isOk())
+                .andExpect(content().string("hello"));
+    }
+
+    @Test
+    void failedJobKeepsTheErrorAndLeavesNoFile() throws Exception {
+        ReportJobService.Job job = awaitFinished(service.submit("broken"));
+
+        assertThat(job.status()).isEqualTo(ReportJobService.Status.FAILED);
+        assertThat(job.error()).isEqualTo("disk full");
+        assertThat(job.artifact()).isNull();
+        assertThat(files()).isEmpty();
+        mvc.perform(get("/reports/jobs/{id}/download", job.id()))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void cleanupRemovesExpiredJobsAndStrayFiles() throws Exception {
+        ReportJobService.Job expired = awaitFinished(service.submit("hello"));
+        ReportJobService.Job recent = awaitFinished(service.submit("hello"));
+        expired.finishedAt = Instant.now().minus(RETENTION.multipliedBy(2));
+
+        FileTime old = FileTime.from(Instant.now().minus(RETENTION.multipliedBy(2)));
+        Path strayOld = Files.writeString(artifactDir.resolve("left-by-crash.tmp"), "x");
+        Files.setLastModifiedTime(strayOld, old);
+        Path strayNew = Files.writeString(artifactDir.resolve("still-writing.tmp"), "x");
+        // an old file that still belongs to a live job must survive the sweep
+        Files.setLastModifiedTime(recent.artifact(), old);
+
+        service.cleanup();
+
+        assertThat(service.find(expired.id())).isEmpty();
+        assertThat(service.find(recent.id())).isPresent();
+        assertThat(files()).containsExactlyInAnyOrder(recent.artifact(), strayNew);
+    }
+
+    private ResultActions submit(String report) throws Exception {
+        return mvc.perform(post("/reports/jobs")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"report\":\"" + report + "\"}"));
+    }
+
+    private List<Path> files() throws IOException {
+        try (var files = Files.list(artifactDir)) {
+            return files.toList();
+        }
+    }
+
+    private static ReportJobService.Job awaitFinished(ReportJobService.Job job) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (job.finishedAt() == null && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(job.finishedAt()).as("job %s finished", job.id()).isNotNull();
+        return job;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ReportGenerator generator(String name, Body body) {
+        return new ReportGenerator() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public String contentType() {
+                return MediaType.TEXT_PLAIN_VALUE;
+            }
+
+            @Override
+            public String fileName() {
+                return name + ".txt";
+            }
+
+            @Override
+            public void write(OutputStream out) throws IOException {
+                body.write(out);
+            }
+        };
+    }
+
+    @FunctionalInterface
+    private interface Body {
+        void write(OutputStream out) throws IOException;
+    }
+}
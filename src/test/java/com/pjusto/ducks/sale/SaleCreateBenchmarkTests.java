@@ -0,0 +1,161 @@
+package com.pjusto.ducks.sale;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pjusto.ducks.customer.Customer;
+import com.pjusto.ducks.customer.CustomerRepository;
+import com.pjusto.ducks.duck.Duck;
+import com.pjusto.ducks.duck.DuckRepository;
+import com.pjusto.ducks.employee.Employee;
+import com.pjusto.ducks.employee.EmployeeRepository;
+import org.hibernate.SessionEventListener;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Round trips and latency of {@code POST /sales} by number of ducks per sale.
+ * <p>
+ * A round trip is one executed JDBC statement or one executed JDBC batch, counted through a Hibernate
+ * session event listener. Run it on the commit before sequence ids were introduced for the IDENTITY baseline.
+ * <p>
+ * The ducks are created before each measured request and are not counted.
+ * <p>
+ * It writes thousands of ducks and sales that are never removed, so it refuses to start unless
+ * {@code benchmarks.datasource.url} names a dedicated database, which replaces {@code spring.datasource.url}:
+ * <pre>
+ * ./mvnw test -Dtest=SaleCreateBenchmarkTests -Dbenchmarks=true \
+ *     -Dbenchmarks.datasource.url=jdbc:postgresql://localhost:5432/ducks_bench
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session.events.auto="
+        + "com.pjusto.ducks.sale.SaleCreateBenchmarkTests$RoundTripCounter")
+@AutoConfigureMockMvc
+class SaleCreateBenchmarkTests {
+
+    private static final int[] DUCKS_PER_SALE = {1, 5, 20, 50};
+    private static final int WARMUP = 20;
+    private static final int ITERATIONS = 100;
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private DuckRepository duckRepository;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @DynamicPropertySource
+    static void dedicatedDatasource(DynamicPropertyRegistry registry) {
+        String url = System.getProperty("benchmarks.datasource.url");
+        if (url == null || url.isBlank()) {
+            throw new IllegalStateException("SaleCreateBenchmarkTests leaves thousands of ducks and sales behind; "
+                    + "set -Dbenchmarks.datasource.url to a dedicated database to run it");
+        }
+        registry.add("spring.datasource.url", () -> url);
+    }
+
+    @Test
+    void createSaleRoundTripsAndLatency() throws Exception {
+        Customer customer = new Customer();
+        customer.setName("Benchmark");
+        customer.setHasSalesDiscount(true);
+        customerRepository.save(customer);
+
+        String code = UUID.randomUUID().toString().substring(0, 8);
+        Employee employee = new Employee();
+        employee.setName("Benchmark");
+        employee.setCpf(code);
+        employee.setEmployee_code(code);
+        employeeRepository.save(employee);
+
+        System.out.printf("%-14s %12s %12s %12s%n", "ducks/sale", "round trips", "mean ms", "p99 ms");
+        for (int ducksPerSale : DUCKS_PER_SALE) {
+            for (int i = 0; i < WARMUP; i++) {
+                createSale(customer.getId(), employee.getId(), ducksPerSale);
+            }
+
+            long[] nanos = new long[ITERATIONS];
+            long roundTrips = 0;
+            for (int i = 0; i < ITERATIONS; i++) {
+                List<Long> duckIds = newDucks(ducksPerSale);
+                RoundTripCounter.reset();
+                long start = System.nanoTime();
+                mvc.perform(post("/sales")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(
+                                        new SaleController.SaleCreateRequest(customer.getId(), employee.getId(), duckIds))))
+                        .andExpect(status().isCreated());
+                nanos[i] = System.nanoTime() - start;
+                roundTrips += RoundTripCounter.total();
+            }
+            Arrays.sort(nanos);
+            double mean = Arrays.stream(nanos).average().orElse(0) / 1e6;
+            double p99 = nanos[(int) Math.ceil(ITERATIONS * 0.99) - 1] / 1e6;
+            System.out.printf("%-14d %12.1f %12.2f %12.2f%n", ducksPerSale, (double) roundTrips / ITERATIONS, mean, p99);
+        }
+    }
+
+    private void createSale(Long customerId, Long employeeId, int ducksPerSale) throws Exception {
+        mvc.perform(post("/sales")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new SaleController.SaleCreateRequest(customerId, employeeId, newDucks(ducksPerSale)))))
+                .andExpect(status().isCreated());
+    }
+
+    private List<Long> newDucks(int count) {
+        List<Duck> ducks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Duck duck = new Duck();
+            duck.setName("Bench " + i);
+            ducks.add(duck);
+        }
+        return duckRepository.saveAll(ducks).stream().map(Duck::getId).toList();
+    }
+
+    /**
+     * Counts executed statements and batches for every session; instantiated by Hibernate per session.
+     */
+    public static class RoundTripCounter implements SessionEventListener {
+        private static final AtomicLong STATEMENTS = new AtomicLong();
+        private static final AtomicLong BATCHES = new AtomicLong();
+
+        static void reset() {
+            STATEMENTS.set(0);
+            BATCHES.set(0);
+        }
+
+        static long total() {
+            return STATEMENTS.get() + BATCHES.get();
+        }
+
+        @Override
+        public void jdbcExecuteStatementEnd() {
+            STATEMENTS.incrementAndGet();
+        }
+
+        @Override
+        public void jdbcExecuteBatchEnd() {
+            BATCHES.incrementAndGet();
+        }
+    }
+}
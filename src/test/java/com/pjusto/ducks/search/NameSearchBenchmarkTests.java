@@ -0,0 +1,162 @@
+package com.pjusto.ducks.search;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Latency and plans of the substring name filters of {@code /ducks}, {@code /customers} and {@code /employees},
+ * with and without the trigram indexes.
+ * <p>
+ * Destructive: it inserts 1,000,000 rows into each of {@code duck}, {@code customer} and {@code employee}, and
+ * drops the production trigram indexes for the sequential-scan run. Rows and indexes are restored at the end,
+ * but a failed or killed run can leave either behind. It therefore refuses to start unless
+ * {@code benchmarks.datasource.url} names a dedicated database, which replaces {@code spring.datasource.url}:
+ * <pre>
+ * ./mvnw test -Dtest=NameSearchBenchmarkTests -Dbenchmarks=true \
+ *     -Dbenchmarks.datasource.url=jdbc:postgresql://localhost:5432/ducks_bench
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class NameSearchBenchmarkTests {
+
+    private static final int ROWS = 1_000_000;
+    private static final String PREFIX = "trgm-bench ";
+    private static final int WARMUP = 10;
+    private static final int ITERATIONS = 50;
+
+    private static final Map<String, String> ENDPOINT_BY_INDEX = new LinkedHashMap<>();
+
+    static {
+        ENDPOINT_BY_INDEX.put("idx_duck_name_trgm", "/ducks");
+        ENDPOINT_BY_INDEX.put("idx_customer_name_trgm", "/customers");
+        ENDPOINT_BY_INDEX.put("idx_employee_name_trgm", "/employees");
+    }
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private final Map<String, String> indexDefinitions = new LinkedHashMap<>();
+
+    @DynamicPropertySource
+    static void dedicatedDatasource(DynamicPropertyRegistry registry) {
+        String url = System.getProperty("benchmarks.datasource.url");
+        if (url == null || url.isBlank()) {
+            throw new IllegalStateException("NameSearchBenchmarkTests writes 1M rows per table and drops indexes; "
+                    + "set -Dbenchmarks.datasource.url to a dedicated database to run it");
+        }
+        registry.add("spring.datasource.url", () -> url);
+    }
+
+    @BeforeAll
+    void seed() {
+        jdbc.update("insert into duck (name) select ? || md5(g::text) from generate_series(1, ?) g", PREFIX, ROWS);
+        jdbc.update("insert into customer (name, has_sales_discount) select ? || md5(g::text), false from generate_series(1, ?) g",
+                PREFIX, ROWS);
+        jdbc.update("""
+                insert into employee (name, cpf, employee_code)
+                select ? || md5(g::text), 'trgm-' || g, 'trgm-' || g from generate_series(1, ?) g
+                """, PREFIX, ROWS);
+        jdbc.execute("analyze duck, customer, employee");
+
+        for (String index : ENDPOINT_BY_INDEX.keySet()) {
+            indexDefinitions.put(index, jdbc.queryForObject(
+                    "select indexdef from pg_indexes where indexname = ?", String.class, index));
+        }
+    }
+
+    @AfterAll
+    void cleanUp() {
+        indexDefinitions.forEach((index, definition) -> {
+            Boolean exists = jdbc.queryForObject(
+                    "select exists (select 1 from pg_indexes where indexname = ?)", Boolean.class, index);
+            if (!Boolean.TRUE.equals(exists)) jdbc.execute(definition);
+        });
+        jdbc.update("delete from employee where name like ?", PREFIX + "%");
+        jdbc.update("delete from customer where name like ?", PREFIX + "%");
+        jdbc.update("delete from duck where name like ?", PREFIX + "%");
+    }
+
+    @Test
+    void substringSearchWithAndWithoutTrigramIndexes() throws Exception {
+        // pieces of seeded names: each matches only a few rows out of a million
+        List<String> terms = List.of(
+                jdbc.queryForObject("select substr(md5('424242'), 9, 8)", String.class),
+                jdbc.queryForObject("select substr(md5('77'), 1, 6)", String.class)
+        );
+
+        System.out.printf("%-12s %-10s %12s %12s %12s%n", "endpoint", "term", "index", "mean ms", "p99 ms");
+        Map<String, double[]> withIndex = measureAll(terms, "trgm");
+        printPlans(terms.get(0));
+
+        indexDefinitions.keySet().forEach(index -> jdbc.execute("drop index " + index));
+        try {
+            Map<String, double[]> withoutIndex = measureAll(terms, "seq scan");
+            printPlans(terms.get(0));
+            withIndex.forEach((key, after) -> System.out.printf("%-23s speedup %8.1fx%n",
+                    key, withoutIndex.get(key)[0] / after[0]));
+        } finally {
+            indexDefinitions.values().forEach(jdbc::execute);
+        }
+    }
+
+    private Map<String, double[]> measureAll(List<String> terms, String label) throws Exception {
+        Map<String, double[]> results = new LinkedHashMap<>();
+        for (String endpoint : ENDPOINT_BY_INDEX.values()) {
+            for (String term : terms) {
+                double[] meanAndP99 = measure(endpoint, term);
+                results.put(endpoint + " " + term, meanAndP99);
+                System.out.printf("%-12s %-10s %12s %12.2f %12.2f%n", endpoint, term, label, meanAndP99[0], meanAndP99[1]);
+            }
+        }
+        return results;
+    }
+
+    /** Plan of the name predicate the endpoints share; the terms are hex, so inlining them is safe. */
+    private void printPlans(String term) {
+        for (String table : List.of("duck", "customer", "employee")) {
+            System.out.println("-- " + table);
+            jdbc.queryForList("explain (analyze, costs off, timing off, summary on) select id from " + table
+                            + " where lower(name) like '%" + term + "%' escape '!'", String.class)
+                    .forEach(System.out::println);
+        }
+    }
+
+    private double[] measure(String endpoint, String term) throws Exception {
+        for (int i = 0; i < WARMUP; i++) {
+            mvc.perform(get(endpoint).param("name", term)).andExpect(status().isOk());
+        }
+        long[] nanos = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            mvc.perform(get(endpoint).param("name", term)).andExpect(status().isOk());
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        double mean = Arrays.stream(nanos).average().orElse(0) / 1e6;
+        double p99 = nanos[(int) Math.ceil(ITERATIONS * 0.99) - 1] / 1e6;
+        return new double[]{mean, p99};
+    }
+}
@@ -0,0 +1,57 @@
+package com.pjusto.ducks.search;
+
+import com.pjusto.ducks.cache.EntityType;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SearchIndexTests {
+
+    @Test
+    void writesDuringReloadSurviveTheSwap() throws SQLException {
+        // the duck scan sees Patolino and Donalda; customers and employees are empty
+        ResultSet ducks = mock(ResultSet.class);
+        when(ducks.getLong(1)).thenReturn(1L, 2L);
+        when(ducks.getString(2)).thenReturn("Patolino", "Donalda");
+
+        SearchIndex[] reloading = new SearchIndex[1];
+        JdbcTemplate jdbc = new JdbcTemplate() {
+            private boolean scanned;
+
+            @Override
+            public void query(PreparedStatementCreator psc, RowCallbackHandler rch) {
+                if (scanned) {
+                    return;
+                }
+                scanned = true;
+                try {
+                    rch.processRow(ducks);
+                    rch.processRow(ducks);
+                } catch (SQLException ex) {
+                    throw new IllegalStateException(ex);
+                }
+                // writes committed after the scan's snapshot, applied while it is still running
+                reloading[0].put(EntityType.DUCK, 3, "Patativa");
+                reloading[0].remove(EntityType.DUCK, 1);
+            }
+        };
+        reloading[0] = new SearchIndex(jdbc, mock(PlatformTransactionManager.class));
+
+        reloading[0].reload();
+
+        assertThat(reloading[0].search("pat", Set.of(EntityType.DUCK), 10))
+                .extracting(SearchIndex.Hit::id)
+                .containsExactly(3L);
+        assertThat(reloading[0].size()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,85 @@
+package com.pjusto.ducks.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrigramIndexTests {
+
+    @Test
+    void substringMatchesAreVerifiedAndRanked() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1, "Patolino");
+        index.put(2, "Pato");
+        index.put(3, "Donald Pato");
+        index.put(4, "Tapo Ato");
+
+        assertThat(keys(index.search("pato", 10, TrigramIndex.KeyFilter.ALL))).containsExactly(2L, 1L, 3L);
+        assertThat(keys(index.search("olin", 10, TrigramIndex.KeyFilter.ALL))).containsExactly(1L);
+    }
+
+    @Test
+    void shortWordsMatchWordPrefixes() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1, "Maria Silva");
+        index.put(2, "Ana Maria");
+        index.put(3, "Samuel");
+
+        assertThat(keys(index.search("ma si", 10, TrigramIndex.KeyFilter.ALL))).containsExactly(1L);
+        assertThat(keys(index.search("a", 10, TrigramIndex.KeyFilter.ALL))).containsExactly(2L);
+    }
+
+    @Test
+    void accentsAndCaseAreIgnoredAndTheMatchingFieldIsReported() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(7, "João Araújo", "123.456.789-00", "EMP-42");
+
+        List<TrigramIndex.Hit> byName = index.search("ARAUJO", 10, TrigramIndex.KeyFilter.ALL);
+        assertThat(byName).singleElement().satisfies(hit -> {
+            assertThat(hit.field()).isZero();
+            assertThat(hit.label()).isEqualTo("João Araújo");
+        });
+
+        List<TrigramIndex.Hit> byCode = index.search("emp-42", 10, TrigramIndex.KeyFilter.ALL);
+        assertThat(byCode).singleElement().satisfies(hit -> {
+            assertThat(hit.field()).isEqualTo(2);
+            assertThat(hit.value()).isEqualTo("EMP-42");
+        });
+    }
+
+    @Test
+    void removedAndReplacedDocumentsSurviveCompaction() {
+        TrigramIndex index = new TrigramIndex();
+        for (long key = 1; key <= 3_000; key++) {
+            index.put(key, "duck " + key);
+        }
+        for (long key = 1; key <= 2_500; key++) {
+            index.remove(key);
+        }
+        index.put(2_999, "renamed");
+
+        assertThat(index.size()).isEqualTo(500);
+        assertThat(keys(index.search("duck 2501", 10, TrigramIndex.KeyFilter.ALL))).containsExactly(2_501L);
+        assertThat(keys(index.search("duck 24", 10, TrigramIndex.KeyFilter.ALL))).isEmpty();
+        assertThat(keys(index.search("renamed", 10, TrigramIndex.KeyFilter.ALL))).containsExactly(2_999L);
+        assertThat(index.search("duck 2999", 10, TrigramIndex.KeyFilter.ALL)).isEmpty();
+    }
+
+    @Test
+    void limitAndKeyFilterApply() {
+        TrigramIndex index = new TrigramIndex();
+        for (long key = 1; key <= 50; key++) {
+            index.put(key, "mallard " + key);
+        }
+
+        assertThat(index.search("mallard", 5, TrigramIndex.KeyFilter.ALL)).hasSize(5);
+        assertThat(keys(index.search("mallard", 50, key -> key % 10 == 0)))
+                .containsExactly(10L, 20L, 30L, 40L, 50L);
+    }
+
+    private static List<Long> keys(List<TrigramIndex.Hit> hits) {
+        return hits.stream().map(TrigramIndex.Hit::key).toList();
+    }
+}